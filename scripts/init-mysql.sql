@@ -26,7 +26,12 @@ CREATE TABLE sach (
   ngay_phat_hanh DATE,
   trang_thai ENUM('AN','HIEU_LUC') DEFAULT 'HIEU_LUC',
   diem_trung_binh DECIMAL(3,2) DEFAULT 0,
-  luot_mua INT DEFAULT 0
+  luot_mua INT DEFAULT 0,
+  ngay_tao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  ngay_cap_nhat TIMESTAMP NULL ON UPDATE CURRENT_TIMESTAMP,
+  -- Last change for the incremental extract; ngay_cap_nhat stays NULL until the first update.
+  changed_at TIMESTAMP GENERATED ALWAYS AS (COALESCE(ngay_cap_nhat, ngay_tao)) STORED,
+  INDEX idx_sach_changed (changed_at, ma_sach)
 );
 
 CREATE TABLE sach_tac_gia (
@@ -45,6 +50,27 @@ CREATE TABLE sach_the_loai (
   FOREIGN KEY (ma_the_loai) REFERENCES the_loai(ma_the_loai)
 );
 
+-- A book record carries its author and category names, so editing a link or renaming an author or
+-- category touches the book for the incremental extract, like cart items touch their cart.
+CREATE TRIGGER trg_stg_insert AFTER INSERT ON sach_tac_gia FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach = NEW.ma_sach;
+CREATE TRIGGER trg_stg_update AFTER UPDATE ON sach_tac_gia FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach IN (OLD.ma_sach, NEW.ma_sach);
+CREATE TRIGGER trg_stg_delete AFTER DELETE ON sach_tac_gia FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach = OLD.ma_sach;
+CREATE TRIGGER trg_stl_insert AFTER INSERT ON sach_the_loai FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach = NEW.ma_sach;
+CREATE TRIGGER trg_stl_update AFTER UPDATE ON sach_the_loai FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach IN (OLD.ma_sach, NEW.ma_sach);
+CREATE TRIGGER trg_stl_delete AFTER DELETE ON sach_the_loai FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_sach = OLD.ma_sach;
+CREATE TRIGGER trg_tg_update AFTER UPDATE ON tac_gia FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP
+  WHERE ma_sach IN (SELECT ma_sach FROM sach_tac_gia WHERE ma_tac_gia = NEW.ma_tac_gia);
+CREATE TRIGGER trg_tl_update AFTER UPDATE ON the_loai FOR EACH ROW
+  UPDATE sach SET ngay_cap_nhat = CURRENT_TIMESTAMP
+  WHERE ma_sach IN (SELECT ma_sach FROM sach_the_loai WHERE ma_the_loai = NEW.ma_the_loai);
+
 CREATE TABLE anh_sach (
   ma_anh INT AUTO_INCREMENT PRIMARY KEY,
   ma_sach INT NOT NULL,
@@ -77,7 +103,10 @@ CREATE TABLE nguoi_dung (
   mat_khau_hash VARCHAR(200) NOT NULL,
   trang_thai ENUM('HOAT_DONG','KHOA') DEFAULT 'HOAT_DONG',
   ngay_tao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  ngay_cap_nhat TIMESTAMP NULL ON UPDATE CURRENT_TIMESTAMP
+  ngay_cap_nhat TIMESTAMP NULL ON UPDATE CURRENT_TIMESTAMP,
+  -- Last change for the incremental extract; ngay_cap_nhat stays NULL until the first update.
+  changed_at TIMESTAMP GENERATED ALWAYS AS (COALESCE(ngay_cap_nhat, ngay_tao)) STORED,
+  INDEX idx_nd_changed (changed_at, ma_nguoi_dung)
 );
 
 CREATE TABLE nguoi_dung_vai_tro (
@@ -88,11 +117,26 @@ CREATE TABLE nguoi_dung_vai_tro (
   FOREIGN KEY (ma_vai_tro) REFERENCES vai_tro(ma_vai_tro)
 );
 
+-- A customer record carries its role names; role edits touch the user like book links touch the book.
+CREATE TRIGGER trg_ndvt_insert AFTER INSERT ON nguoi_dung_vai_tro FOR EACH ROW
+  UPDATE nguoi_dung SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_nguoi_dung = NEW.ma_nguoi_dung;
+CREATE TRIGGER trg_ndvt_update AFTER UPDATE ON nguoi_dung_vai_tro FOR EACH ROW
+  UPDATE nguoi_dung SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_nguoi_dung IN (OLD.ma_nguoi_dung, NEW.ma_nguoi_dung);
+CREATE TRIGGER trg_ndvt_delete AFTER DELETE ON nguoi_dung_vai_tro FOR EACH ROW
+  UPDATE nguoi_dung SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_nguoi_dung = OLD.ma_nguoi_dung;
+CREATE TRIGGER trg_vt_update AFTER UPDATE ON vai_tro FOR EACH ROW
+  UPDATE nguoi_dung SET ngay_cap_nhat = CURRENT_TIMESTAMP
+  WHERE ma_nguoi_dung IN (SELECT ma_nguoi_dung FROM nguoi_dung_vai_tro WHERE ma_vai_tro = NEW.ma_vai_tro);
+
 -- Cart & orders
 CREATE TABLE gio_hang (
   ma_gio_hang INT AUTO_INCREMENT PRIMARY KEY,
   ma_nguoi_dung INT NOT NULL,
   ngay_tao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  ngay_cap_nhat TIMESTAMP NULL ON UPDATE CURRENT_TIMESTAMP,
+  -- Last change for the incremental extract; ngay_cap_nhat stays NULL until the first update.
+  changed_at TIMESTAMP GENERATED ALWAYS AS (COALESCE(ngay_cap_nhat, ngay_tao)) STORED,
+  INDEX idx_gh_changed (changed_at, ma_gio_hang),
   CONSTRAINT fk_gio_hang_nguoi_dung FOREIGN KEY (ma_nguoi_dung) REFERENCES nguoi_dung(ma_nguoi_dung)
 );
 
@@ -107,6 +151,16 @@ CREATE TABLE chi_tiet_gio_hang (
   INDEX idx_ctgh_sach (ma_sach)
 );
 
+-- Cart items carry no timestamp of their own; touching the cart makes item edits visible to the
+-- incremental extract. Rows removed by the ON DELETE CASCADE of a deleted cart fire no trigger, which is
+-- fine: the cart itself is then gone and picked up by the key scan.
+CREATE TRIGGER trg_ctgh_insert AFTER INSERT ON chi_tiet_gio_hang FOR EACH ROW
+  UPDATE gio_hang SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_gio_hang = NEW.ma_gio_hang;
+CREATE TRIGGER trg_ctgh_update AFTER UPDATE ON chi_tiet_gio_hang FOR EACH ROW
+  UPDATE gio_hang SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_gio_hang IN (OLD.ma_gio_hang, NEW.ma_gio_hang);
+CREATE TRIGGER trg_ctgh_delete AFTER DELETE ON chi_tiet_gio_hang FOR EACH ROW
+  UPDATE gio_hang SET ngay_cap_nhat = CURRENT_TIMESTAMP WHERE ma_gio_hang = OLD.ma_gio_hang;
+
 CREATE TABLE don_hang (
   ma_don_hang INT AUTO_INCREMENT PRIMARY KEY,
   ma_nguoi_dung INT NOT NULL,
@@ -148,6 +202,10 @@ CREATE TABLE hoa_don (
   so_tien DECIMAL(12,2) NOT NULL CHECK (so_tien >= 0),
   trang_thai_thanh_toan ENUM('CHUA_TT','DA_TT') NOT NULL DEFAULT 'CHUA_TT',
   ngay_tao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  ngay_cap_nhat TIMESTAMP NULL ON UPDATE CURRENT_TIMESTAMP,
+  -- Last change for the incremental extract; ngay_cap_nhat stays NULL until the first update.
+  changed_at TIMESTAMP GENERATED ALWAYS AS (COALESCE(ngay_cap_nhat, ngay_tao)) STORED,
+  INDEX idx_hd_changed (changed_at, ma_hoa_don),
   CONSTRAINT fk_hd_don FOREIGN KEY (ma_don_hang) REFERENCES don_hang(ma_don_hang) ON DELETE CASCADE,
   UNIQUE KEY uq_hd_don (ma_don_hang),
   INDEX idx_hd_ngay (ngay_tao)
@@ -235,8 +293,10 @@ CREATE TABLE stg_books (
   total_orders INT DEFAULT 0,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
+  content_hash CHAR(64) NULL,
   source VARCHAR(50) NOT NULL,
-  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_books_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE stg_customers (
@@ -249,7 +309,9 @@ CREATE TABLE stg_customers (
   created_at TIMESTAMP NULL,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
-  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  content_hash CHAR(64) NULL,
+  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_customers_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE stg_orders (
@@ -269,8 +331,10 @@ CREATE TABLE stg_orders (
   updated_at DATETIME,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
+  content_hash CHAR(64) NULL,
   loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  INDEX idx_order_customer (customer_key, order_date)
+  INDEX idx_order_customer (customer_key, order_date),
+  INDEX idx_orders_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE stg_order_items (
@@ -281,10 +345,12 @@ CREATE TABLE stg_order_items (
   line_amount DECIMAL(12,2) GENERATED ALWAYS AS (quantity * unit_price) STORED,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
+  content_hash CHAR(64) NULL,
   loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (order_key, book_key),
   INDEX idx_items_order (order_key),
-  INDEX idx_items_book (book_key)
+  INDEX idx_items_book (book_key),
+  INDEX idx_items_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE stg_carts (
@@ -293,7 +359,9 @@ CREATE TABLE stg_carts (
   created_at TIMESTAMP NULL,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
-  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  content_hash CHAR(64) NULL,
+  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_carts_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE stg_cart_items (
@@ -317,7 +385,9 @@ CREATE TABLE stg_invoices (
   due_at TIMESTAMP NULL,
   quality_status ENUM('RAW','VALIDATED','REJECTED') DEFAULT 'RAW',
   quality_errors TEXT,
-  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  content_hash CHAR(64) NULL,
+  loaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_invoices_delta (quality_status, loaded_at)
 );
 
 CREATE TABLE etl_log (
@@ -331,3 +401,44 @@ CREATE TABLE etl_log (
   source_record VARCHAR(100) NULL,
   target_record VARCHAR(100) NULL
 );
+
+-- Last staging row (loaded_at, key) committed to source_db per entity; drives delta loads.
+CREATE TABLE etl_load_watermark (
+  entity VARCHAR(50) PRIMARY KEY,
+  last_loaded_at TIMESTAMP NULL,
+  last_key VARCHAR(120) NULL,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Bytes of each drop-directory file already published to the raw queues; lets ingestion resume mid-file.
+CREATE TABLE etl_ingest_checkpoint (
+  file_name VARCHAR(255) PRIMARY KEY,
+  file_key VARCHAR(255) NULL,
+  byte_offset BIGINT NOT NULL DEFAULT 0,
+  next_line BIGINT NOT NULL DEFAULT 1,
+  rows_published BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Last source_db row (changed_at, key) published by the incremental extract, per table.
+CREATE TABLE etl_extract_checkpoint (
+  entity VARCHAR(50) PRIMARY KEY,
+  last_changed_at TIMESTAMP NULL,
+  last_key INT NOT NULL DEFAULT 0,
+  last_key_scan_at TIMESTAMP NULL,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Source keys seen by the last key scan; a key that disappears from source_db between two scans was deleted.
+CREATE TABLE etl_extract_key_snapshot (
+  entity VARCHAR(50) NOT NULL,
+  entity_key INT NOT NULL,
+  PRIMARY KEY (entity, entity_key)
+);
+
+CREATE TABLE etl_extract_deletion (
+  entity VARCHAR(50) NOT NULL,
+  entity_key INT NOT NULL,
+  detected_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (entity, entity_key)
+);
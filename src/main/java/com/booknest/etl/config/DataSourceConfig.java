@@ -18,13 +18,15 @@ public class DataSourceConfig {
 
     private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
 
-    @Value("${STAGING_DB_URL:jdbc:mysql://${STAGING_DB_HOST:mysql-source}:3306/staging_db}")
+    // Resolved through staging.datasource in application.yml, which applies the STAGING_DB_* overrides and
+    // keeps the JDBC URL options (rewriteBatchedStatements) in one place.
+    @Value("${staging.datasource.url}")
     private String stagingUrl;
 
-    @Value("${STAGING_DB_USERNAME:root}")
+    @Value("${staging.datasource.username}")
     private String stagingUsername;
 
-    @Value("${STAGING_DB_PASSWORD:root}")
+    @Value("${staging.datasource.password}")
     private String stagingPassword;
 
     @Primary
@@ -60,7 +62,7 @@ public class DataSourceConfig {
     @Bean
     public DataSource stagingDataSource() {
         try {
-            log.info("Creating staging DataSource from STAGING_DB_URL={}", stagingUrl);
+            log.info("Creating staging DataSource URL={}", stagingUrl);
             DataSource ds = DataSourceBuilder.create()
                     .driverClassName(stagingDataSourceProperties().getDriverClassName())
                     .url(stagingUrl)
@@ -79,4 +81,16 @@ public class DataSourceConfig {
     public JdbcTemplate stagingJdbcTemplate(DataSource stagingDataSource) {
         return new JdbcTemplate(stagingDataSource);
     }
+
+    /**
+     * Staging template for large sequential reads. A fetch size of Integer.MIN_VALUE makes MySQL
+     * Connector/J stream the result row by row instead of buffering it all in memory; the connection
+     * cannot run other statements until the result set is fully read.
+     */
+    @Bean
+    public JdbcTemplate stagingStreamingJdbcTemplate(DataSource stagingDataSource) {
+        JdbcTemplate template = new JdbcTemplate(stagingDataSource);
+        template.setFetchSize(Integer.MIN_VALUE);
+        return template;
+    }
 }
@@ -0,0 +1,115 @@
+package com.booknest.etl.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import lombok.Value;
+
+/**
+ * Per-queue listener container settings from {@code etl.queues.listeners.<queue key>}, falling back to
+ * {@code etl.queues.listeners.default}; the queue key is the one used under {@code etl.queues} (e.g.
+ * {@code orderitem-raw}). Containers are created with {@code min-consumers}, may grow to
+ * {@code max-consumers} and start with {@code prefetch}. With {@code etl.queues.autoscale.enabled} the
+ * container's own consumer scaling is switched off (max = current) and the autoscaler owns the count.
+ *
+ * <p>Every container also records the time its listener spends handling messages, which is what the
+ * autoscaler reads as consumer utilization.
+ */
+@Component
+public class ListenerContainerTuning {
+
+    private static final List<String> ENTITIES = List.of("book", "customer", "order", "orderitem", "cart", "invoice");
+    private static final List<String> STAGES = List.of("raw", "quality", "error");
+
+    @Value
+    public static class Settings {
+        int minConsumers;
+        int maxConsumers;
+        int prefetch;
+        int maxPrefetch;
+    }
+
+    private final Map<String, Settings> byQueue = new HashMap<>();
+    private final Settings defaults;
+    private final boolean autoscale;
+    private final Map<String, Integer> initialPrefetch = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> busyNanos = new ConcurrentHashMap<>();
+
+    public ListenerContainerTuning(Environment environment) {
+        this.defaults = read(environment, "default", new Settings(3, 10, 250, 1000));
+        this.autoscale = environment.getProperty("etl.queues.autoscale.enabled", Boolean.class, false);
+        for (String entity : ENTITIES) {
+            for (String stage : STAGES) {
+                String key = entity + "-" + stage;
+                String queue = environment.getProperty("etl.queues." + key);
+                if (queue != null) {
+                    byQueue.put(queue, read(environment, key, defaults));
+                }
+            }
+        }
+    }
+
+    private static Settings read(Environment environment, String key, Settings fallback) {
+        String prefix = "etl.queues.listeners." + key + ".";
+        int minConsumers = environment.getProperty(prefix + "min-consumers", Integer.class, fallback.getMinConsumers());
+        int maxConsumers = environment.getProperty(prefix + "max-consumers", Integer.class, fallback.getMaxConsumers());
+        int prefetch = environment.getProperty(prefix + "prefetch", Integer.class, fallback.getPrefetch());
+        int maxPrefetch = environment.getProperty(prefix + "max-prefetch", Integer.class, fallback.getMaxPrefetch());
+        if (minConsumers < 1 || maxConsumers < minConsumers || prefetch < 1 || maxPrefetch < prefetch) {
+            throw new IllegalStateException("Invalid listener settings for " + key + ": consumers " + minConsumers + "-"
+                    + maxConsumers + ", prefetch " + prefetch + "-" + maxPrefetch);
+        }
+        return new Settings(minConsumers, maxConsumers, prefetch, maxPrefetch);
+    }
+
+    public Settings forQueue(String queue) {
+        return byQueue.getOrDefault(queue, defaults);
+    }
+
+    /**
+     * Applies the queue's settings. {@code minPrefetch} keeps a batch listener's prefetch at least one
+     * batch.
+     */
+    public void apply(SimpleMessageListenerContainer container, int minPrefetch) {
+        String queue = container.getQueueNames()[0];
+        Settings settings = forQueue(queue);
+        container.setConcurrentConsumers(settings.getMinConsumers());
+        container.setMaxConcurrentConsumers(autoscale ? settings.getMinConsumers() : settings.getMaxConsumers());
+        int prefetch = Math.max(settings.getPrefetch(), minPrefetch);
+        container.setPrefetchCount(prefetch);
+        initialPrefetch.put(queue, prefetch);
+
+        LongAdder busy = busyNanos.computeIfAbsent(queue, name -> new LongAdder());
+        container.setAdviceChain((MethodInterceptor) invocation -> {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                busy.add(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * The prefetch the queue's container started with.
+     */
+    public int initialPrefetch(String queue) {
+        return initialPrefetch.getOrDefault(queue, forQueue(queue).getPrefetch());
+    }
+
+    /**
+     * Total time the queue's listener has spent handling messages since startup.
+     */
+    public long busyNanos(String queue) {
+        LongAdder busy = busyNanos.get(queue);
+        return busy == null ? 0 : busy.sum();
+    }
+}
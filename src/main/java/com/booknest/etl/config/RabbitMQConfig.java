@@ -3,25 +3,46 @@ package com.booknest.etl.config;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 
+import com.booknest.etl.messaging.codec.CborMessageConverter;
+
 @Configuration
 @EnableRabbit
 public class RabbitMQConfig {
 
+    private static final String DTO_PACKAGE = "com.booknest.etl.dto";
+
     @Value("${etl.exchange}")
     private String etlExchange;
 
+    @Value("${etl.messaging.codec:json}")
+    private String codec;
+
+    @Value("${etl.messaging.confirms.enabled:false}")
+    private boolean publisherConfirms;
+
+    @Value("${etl.messaging.consumer-batch.size:200}")
+    private int consumerBatchSize;
+
+    @Value("${etl.messaging.consumer-batch.receive-timeout-ms:500}")
+    private long consumerBatchReceiveTimeoutMs;
+
     // Book queues
     @Value("${etl.queues.book-raw}")
     private String bookRawQueue;
@@ -263,26 +284,59 @@ public class RabbitMQConfig {
 
     @Bean
     public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        // Class-level listeners pick the payload type from the __TypeId__ header (record or RawBatch).
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setTrustedPackages(DTO_PACKAGE);
+        converter.setJavaTypeMapper(typeMapper);
+        return converter;
+    }
+
+    @Bean
+    public CborMessageConverter cborMessageConverter() {
+        return new CborMessageConverter(DTO_PACKAGE);
+    }
+
+    /**
+     * Reads JSON and CBOR by the message's content type and writes {@code etl.messaging.codec}. Switch the
+     * codec to cbor only once every consumer runs a version that reads it.
+     */
+    @Bean
+    @Primary
+    public ContentTypeDelegatingMessageConverter messageConverter() {
+        MessageConverter outbound = "cbor".equalsIgnoreCase(codec) ? cborMessageConverter() : jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(outbound);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, jackson2JsonMessageConverter());
+        converter.addDelegate(CborMessageConverter.CONTENT_TYPE, cborMessageConverter());
+        return converter;
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(jackson2JsonMessageConverter());
+        template.setMessageConverter(messageConverter());
         template.setExchange(etlExchange);
+        // Unroutable messages come back to the publisher instead of being dropped by the broker.
+        template.setMandatory(publisherConfirms);
         return template;
     }
 
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
-                                                                               Jackson2JsonMessageConverter converter) {
+                                                                               MessageConverter converter,
+                                                                               ListenerContainerTuning tuning) {
+        SimpleRabbitListenerContainerFactory factory = listenerContainerFactory(connectionFactory, converter);
+        factory.setContainerCustomizer(container -> tuning.apply(container, 1));
+        return factory;
+    }
+
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                          MessageConverter converter) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(converter);
         factory.setAutoStartup(true); 
-        factory.setConcurrentConsumers(3); 
-        factory.setMaxConcurrentConsumers(10);
+        // Concurrency and prefetch are set per queue by ListenerContainerTuning.
         
         factory.setErrorHandler(t -> {
             System.err.println("====== RABBITMQ LISTENER ERROR ======");
@@ -294,11 +348,32 @@ public class RabbitMQConfig {
         return factory;
     }
 
+    /**
+     * For the raw queues: a listener receives up to {@code batch-size} deliveries at once, or whatever
+     * arrived within {@code receive-timeout-ms}, and the whole batch is acknowledged together.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rawBatchListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                 MessageConverter converter,
+                                                                                 ListenerContainerTuning tuning) {
+        SimpleRabbitListenerContainerFactory factory = listenerContainerFactory(connectionFactory, converter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(consumerBatchSize);
+        factory.setReceiveTimeout(consumerBatchReceiveTimeoutMs);
+        factory.setContainerCustomizer(container -> tuning.apply(container, consumerBatchSize));
+        return factory;
+    }
+
     @Bean
     public ConnectionFactory connectionFactory(org.springframework.boot.autoconfigure.amqp.RabbitProperties rabbitProperties) {
         CachingConnectionFactory factory = new CachingConnectionFactory(rabbitProperties.getHost(), rabbitProperties.getPort());
         factory.setUsername(rabbitProperties.getUsername());
         factory.setPassword(rabbitProperties.getPassword());
+        if (publisherConfirms) {
+            factory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+            factory.setPublisherReturns(true);
+        }
         return factory;
     }
 }
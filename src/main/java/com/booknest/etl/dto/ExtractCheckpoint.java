@@ -0,0 +1,16 @@
+package com.booknest.etl.dto;
+
+import java.sql.Timestamp;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ExtractCheckpoint {
+    String entity;
+    Timestamp lastChangedAt;
+    int lastKey;
+    Timestamp lastKeyScanAt;
+    Timestamp updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.booknest.etl.dto;
+
+import java.sql.Timestamp;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class IngestCheckpoint {
+    String fileName;
+    String fileKey;
+    long byteOffset;
+    long nextLine;
+    long rowsPublished;
+    Timestamp updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.booknest.etl.dto;
+
+import java.sql.Timestamp;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class LoadWatermark {
+    String entity;
+    Timestamp lastLoadedAt;
+    String lastKey;
+}
@@ -0,0 +1,30 @@
+package com.booknest.etl.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Several raw records of one entity sent as a single AMQP message. Each record carries a short type name
+ * so the consumer gets typed records back rather than maps. Consumers still process the records one by
+ * one, so a record that fails validation goes to the error queue on its own.
+ */
+@Value
+@Builder
+public class RawBatch<T> {
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "@type")
+    @JsonSubTypes({
+            @JsonSubTypes.Type(value = BookRawMessage.class, name = "book"),
+            @JsonSubTypes.Type(value = UserRawMessage.class, name = "customer"),
+            @JsonSubTypes.Type(value = OrderRawMessage.class, name = "order"),
+            @JsonSubTypes.Type(value = OrderItemRawMessage.class, name = "orderitem"),
+            @JsonSubTypes.Type(value = CartRawMessage.class, name = "cart"),
+            @JsonSubTypes.Type(value = InvoiceRawMessage.class, name = "invoice")
+    })
+    List<T> records;
+}
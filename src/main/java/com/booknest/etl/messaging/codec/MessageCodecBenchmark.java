@@ -0,0 +1,205 @@
+package com.booknest.etl.messaging.codec;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+
+import com.booknest.etl.dto.BookRawMessage;
+import com.booknest.etl.dto.CartItemRawMessage;
+import com.booknest.etl.dto.CartRawMessage;
+import com.booknest.etl.dto.InvoiceRawMessage;
+import com.booknest.etl.dto.OrderItemRawMessage;
+import com.booknest.etl.dto.OrderRawMessage;
+import com.booknest.etl.dto.RawBatch;
+import com.booknest.etl.dto.UserRawMessage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Compares the JSON and CBOR converters on one representative message of every raw DTO and on a
+ * 200-order batch envelope. Each round times {@code iterations} encodes and decodes per codec (after an
+ * untimed warm-up, alternating which codec goes first); the report holds the median per operation. The
+ * timings go through the full {@link MessageConverter} path including headers, as the broker sees it.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageCodecBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageCodecBenchmark.class);
+    private static final OffsetDateTime EXTRACTED_AT = OffsetDateTime.of(2025, 3, 14, 9, 30, 0, 0, ZoneOffset.UTC);
+
+    private final Jackson2JsonMessageConverter jsonConverter;
+    private final CborMessageConverter cborConverter;
+
+    private long sink;
+
+    public MessageCodecBenchmarkReport run(int rounds, int iterations) {
+        List<MessageCodecBenchmarkReport.Sample> results = new ArrayList<>();
+        for (Map.Entry<String, Object> sample : samples().entrySet()) {
+            Object payload = sample.getValue();
+            measure(jsonConverter, payload, iterations);
+            measure(cborConverter, payload, iterations);
+
+            List<long[]> json = new ArrayList<>(rounds);
+            List<long[]> cbor = new ArrayList<>(rounds);
+            for (int round = 0; round < rounds; round++) {
+                if (round % 2 == 0) {
+                    json.add(measure(jsonConverter, payload, iterations));
+                    cbor.add(measure(cborConverter, payload, iterations));
+                } else {
+                    cbor.add(measure(cborConverter, payload, iterations));
+                    json.add(measure(jsonConverter, payload, iterations));
+                }
+            }
+
+            Message jsonMessage = jsonConverter.toMessage(payload, new MessageProperties());
+            Message cborMessage = cborConverter.toMessage(payload, new MessageProperties());
+            results.add(MessageCodecBenchmarkReport.Sample.builder()
+                    .name(sample.getKey())
+                    .jsonBytes(jsonMessage.getBody().length)
+                    .cborBytes(cborMessage.getBody().length)
+                    .jsonEncodeNs(median(json, 0))
+                    .cborEncodeNs(median(cbor, 0))
+                    .jsonDecodeNs(median(json, 1))
+                    .cborDecodeNs(median(cbor, 1))
+                    .roundTrip(payload.equals(jsonConverter.fromMessage(jsonMessage))
+                            && payload.equals(cborConverter.fromMessage(cborMessage)))
+                    .build());
+        }
+
+        for (MessageCodecBenchmarkReport.Sample sample : results) {
+            log.info("Codec benchmark {}: JSON {} B, encode {} ns, decode {} ns | CBOR {} B, encode {} ns, decode {} ns{}",
+                    sample.getName(), sample.getJsonBytes(), sample.getJsonEncodeNs(), sample.getJsonDecodeNs(),
+                    sample.getCborBytes(), sample.getCborEncodeNs(), sample.getCborDecodeNs(),
+                    sample.isRoundTrip() ? "" : " (ROUND TRIP MISMATCH)");
+        }
+        log.debug("Benchmark sink {}", sink);
+        return MessageCodecBenchmarkReport.builder()
+                .rounds(rounds)
+                .iterations(iterations)
+                .samples(results)
+                .build();
+    }
+
+    /**
+     * Nanoseconds per encode and per decode.
+     */
+    private long[] measure(MessageConverter converter, Object payload, int iterations) {
+        Message message = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            message = converter.toMessage(payload, new MessageProperties());
+            sink += message.getBody().length;
+        }
+        long encode = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += converter.fromMessage(message).hashCode();
+        }
+        long decode = (System.nanoTime() - start) / iterations;
+        return new long[] {encode, decode};
+    }
+
+    private static long median(List<long[]> timings, int index) {
+        List<Long> sorted = timings.stream().map(timing -> timing[index]).sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static Map<String, Object> samples() {
+        Map<String, Object> samples = new LinkedHashMap<>();
+        samples.put("book", BookRawMessage.builder()
+                .source("db")
+                .bookId("1042")
+                .title("Nhà giả kim")
+                .description("Tiểu thuyết về hành trình theo đuổi ước mơ của chàng chăn cừu Santiago.")
+                .price(new BigDecimal("79000.00"))
+                .releasedAt(LocalDate.of(2020, 5, 1))
+                .status("ACTIVE")
+                .averageRating(new BigDecimal("4.60"))
+                .totalOrders(1287)
+                .authors(List.of("Paulo Coelho"))
+                .categories(List.of("Tiểu thuyết", "Văn học nước ngoài"))
+                .extractedAt(EXTRACTED_AT)
+                .build());
+        samples.put("customer", UserRawMessage.builder()
+                .source("db")
+                .userId("5531")
+                .fullName("Nguyễn Thị Lan")
+                .email("lan.nguyen@example.com")
+                .phone("0912345678")
+                .status("ACTIVE")
+                .roles(List.of("CUSTOMER"))
+                .extractedAt(EXTRACTED_AT)
+                .build());
+        samples.put("orderitem", orderItem(0));
+        samples.put("order", order(0));
+        samples.put("cart", CartRawMessage.builder()
+                .source("db")
+                .cartId("873")
+                .customerId("5531")
+                .createdAt(EXTRACTED_AT.minusDays(2))
+                .items(IntStream.range(0, 3)
+                        .mapToObj(i -> CartItemRawMessage.builder()
+                                .bookId(String.valueOf(1000 + i))
+                                .quantity(i + 1)
+                                .unitPrice(new BigDecimal("65000.00"))
+                                .build())
+                        .toList())
+                .extractedAt(EXTRACTED_AT)
+                .build());
+        samples.put("invoice", InvoiceRawMessage.builder()
+                .source("db")
+                .invoiceId("HD-20250314-0007")
+                .orderId("DH-20250314-0007")
+                .amount(new BigDecimal("412000.00"))
+                .status("PAID")
+                .issuedAt(EXTRACTED_AT.minusHours(3))
+                .dueAt(EXTRACTED_AT.plusDays(7))
+                .extractedAt(EXTRACTED_AT)
+                .build());
+        samples.put("order batch (200)", RawBatch.builder()
+                .records(IntStream.range(0, 200).<Object>mapToObj(MessageCodecBenchmark::order).toList())
+                .build());
+        return samples;
+    }
+
+    private static OrderRawMessage order(int n) {
+        return OrderRawMessage.builder()
+                .source("csv")
+                .orderId("DH-20250314-" + (1000 + n))
+                .customerName("Trần Văn Minh")
+                .customerEmail("minh.tran" + n + "@example.com")
+                .status("DELIVERED")
+                .paymentMethod("COD")
+                .totalAmount(new BigDecimal("412000.00"))
+                .discount(new BigDecimal("20000.00"))
+                .shippingFee(new BigDecimal("30000.00"))
+                .items(IntStream.range(0, 5).mapToObj(i -> orderItem(n * 5 + i)).toList())
+                .createdAt(EXTRACTED_AT.minusDays(1))
+                .extractedAt(EXTRACTED_AT)
+                .build();
+    }
+
+    private static OrderItemRawMessage orderItem(int n) {
+        return OrderItemRawMessage.builder()
+                .bookId(String.valueOf(1000 + n % 300))
+                .quantity(1 + n % 3)
+                .unitPrice(new BigDecimal("72400.00"))
+                .build();
+    }
+}
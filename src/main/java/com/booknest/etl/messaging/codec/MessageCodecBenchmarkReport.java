@@ -0,0 +1,31 @@
+package com.booknest.etl.messaging.codec;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Payload size and median encode/decode cost of each sample message under the JSON and CBOR converters.
+ */
+@Value
+@Builder
+public class MessageCodecBenchmarkReport {
+    int rounds;
+    int iterations;
+    List<Sample> samples;
+
+    @Value
+    @Builder
+    public static class Sample {
+        String name;
+        int jsonBytes;
+        int cborBytes;
+        long jsonEncodeNs;
+        long cborEncodeNs;
+        long jsonDecodeNs;
+        long cborDecodeNs;
+        /** Whether both converters decode the sample back to an equal object. */
+        boolean roundTrip;
+    }
+}
@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -37,7 +39,7 @@ public class BookQualityConsumer {
             stagingBookRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             log.debug("Saved book {} to staging_db", transformed.getBookId());
 
-            sourceDbLoaderService.loadBooksToSource();
+            sourceDbLoaderService.loadBooks(List.of(transformed.getBookId()));
 
             log.info("Book {} processed: quality -> transform -> staging -> source_db", transformed.getBookId());
 
@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 import com.booknest.etl.dto.BookRawMessage;
-import com.booknest.etl.dto.DqErrorDto;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.BookMessageProducer;
 import com.booknest.etl.repository.staging.StagingBookRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,40 +33,90 @@ public class BookRawConsumer {
     private final DataQualityService dataQualityService;
     private final BookMessageProducer bookProducer;
     private final StagingBookRepository stagingBookRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.book-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleBookRawBatch(List<Message> deliveries) {
+        List<BookRawMessage> books = rawDeliveryUnpacker.unpack(deliveries, BookRawMessage.class, "book.error");
+        Map<BookRawMessage, String> hashes = new LinkedHashMap<>();
+        for (BookRawMessage book : books) {
+            try {
+                BookRawMessage normalized = dataNormalizationService.normalize(book);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing book {}: {}", book.getBookId(), e.getMessage(), e);
+                bookProducer.sendToError(book, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<BookRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.BOOK, hashes,
+                book -> List.of(book.getBookId()));
+
+        List<StagingRow<BookRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((book, contentHash) -> {
+            if (unchanged.contains(book)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(book, dataQualityService.validateBook(book), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing book {}: {}", book.getBookId(), e.getMessage(), e);
+                bookProducer.sendToError(book, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.book-raw}")
-    public void handleBookRaw(BookRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received book {} - PERSISTING TO STAGING_DB", message.getBookId());
+            stagingBookRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} books failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleBookRaw);
+            return;
+        }
 
-            message = dataNormalizationService.normalize(message);
+        int validated = 0;
+        for (StagingRow<BookRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    bookProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    bookProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Book {} validation failed: {}", row.getRecord().getBookId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward book {}: {}", row.getRecord().getBookId(), e.getMessage());
+                bookProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} books: {} validated, {} rejected, {} unchanged",
+                books.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleBookRaw(StagingRow<BookRawMessage> row) {
+        BookRawMessage message = row.getRecord();
+        try {
             try {
-                stagingBookRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Book {} inserted to staging with RAW status", message.getBookId());
+                stagingBookRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Book {} - {}", message.getBookId(), errorMsg);
                 bookProducer.sendToError(message, errorMsg);
-                return; 
+                return;
             }
 
-            List<DqErrorDto> errors = dataQualityService.validateBook(message);
-
-            if (errors.isEmpty()) {
-                stagingBookRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 bookProducer.sendToQuality(message);
                 log.info("Book {} validated → forwarded to quality queue", message.getBookId());
             } else {
-                stagingBookRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                bookProducer.sendToError(message, errors.toString());
-                log.warn("Book {} validation failed: {} → sent to error queue", 
-                    message.getBookId(), errors);
+                bookProducer.sendToError(message, row.getErrors());
+                log.warn("Book {} validation failed: {} → sent to error queue", message.getBookId(), row.getErrors());
             }
-
         } catch (Exception e) {
-            log.error("Unexpected error processing book {}: {}", 
-                message.getBookId(), e.getMessage(), e);
+            log.error("Unexpected error processing book {}: {}", message.getBookId(), e.getMessage(), e);
             bookProducer.sendToError(message, "Processing error: " + e.getMessage());
         }
     }
@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -34,7 +36,7 @@ public class CartQualityConsumer {
             stagingCartRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             log.debug("Saved cart {} to staging_db", transformed.getCartId());
 
-            sourceDbLoaderService.loadCartsToSource();
+            sourceDbLoaderService.loadCarts(List.of(transformed.getCartId()));
             log.info("Cart {} processed: quality queue → transform → staging_db → source_db", 
                 transformed.getCartId());
 
@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 import com.booknest.etl.dto.CartRawMessage;
-import com.booknest.etl.dto.DqErrorDto;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.CartMessageProducer;
 import com.booknest.etl.repository.staging.StagingCartRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,34 +33,87 @@ public class CartRawConsumer {
     private final DataQualityService dataQualityService;
     private final CartMessageProducer cartProducer;
     private final StagingCartRepository stagingCartRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.cart-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleCartRawBatch(List<Message> deliveries) {
+        List<CartRawMessage> carts = rawDeliveryUnpacker.unpack(deliveries, CartRawMessage.class, "cart.error");
+        Map<CartRawMessage, String> hashes = new LinkedHashMap<>();
+        for (CartRawMessage cart : carts) {
+            try {
+                CartRawMessage normalized = dataNormalizationService.normalize(cart);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing cart {}: {}", cart.getCartId(), e.getMessage(), e);
+                cartProducer.sendToError(cart, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<CartRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.CART, hashes,
+                cart -> List.of(cart.getCartId()));
+
+        List<StagingRow<CartRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((cart, contentHash) -> {
+            if (unchanged.contains(cart)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(cart, dataQualityService.validateCart(cart), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing cart {}: {}", cart.getCartId(), e.getMessage(), e);
+                cartProducer.sendToError(cart, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.cart-raw}")
-    public void handleCartRaw(CartRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received cart {} - PERSISTING TO STAGING_DB", message.getCartId());
+            stagingCartRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} carts failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleCartRaw);
+            return;
+        }
 
-            message = dataNormalizationService.normalize(message);
+        int validated = 0;
+        for (StagingRow<CartRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    cartProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    cartProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Cart {} validation failed: {}", row.getRecord().getCartId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward cart {}: {}", row.getRecord().getCartId(), e.getMessage());
+                cartProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} carts: {} validated, {} rejected, {} unchanged",
+                carts.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleCartRaw(StagingRow<CartRawMessage> row) {
+        CartRawMessage message = row.getRecord();
+        try {
             try {
-                stagingCartRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Cart {} inserted to staging with RAW status", message.getCartId());
+                stagingCartRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Cart {} - {}", message.getCartId(), errorMsg);
                 cartProducer.sendToError(message, errorMsg);
                 return;
             }
-            
-            List<DqErrorDto> errors = dataQualityService.validateCart(message);
 
-            if (errors.isEmpty()) {
-                stagingCartRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 cartProducer.sendToQuality(message);
                 log.info("Cart {} validated → forwarded to quality queue", message.getCartId());
             } else {
-                stagingCartRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                cartProducer.sendToError(message, errors.toString());
-                log.warn("Cart {} validation failed: {}", message.getCartId(), errors);
+                cartProducer.sendToError(message, row.getErrors());
+                log.warn("Cart {} validation failed: {} → sent to error queue", message.getCartId(), row.getErrors());
             }
         } catch (Exception e) {
             log.error("Unexpected error processing cart {}: {}", message.getCartId(), e.getMessage(), e);
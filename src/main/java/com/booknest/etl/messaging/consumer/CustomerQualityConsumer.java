@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -34,7 +36,7 @@ public class CustomerQualityConsumer {
             stagingCustomerRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             log.debug("Saved customer {} to staging_db", transformed.getUserId());
 
-            sourceDbLoaderService.loadCustomersToSource();
+            sourceDbLoaderService.loadCustomers(List.of(transformed.getUserId()));
 
             log.info("Customer {} processed: quality queue → transform → staging → source_db", 
                 transformed.getUserId());
@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import com.booknest.etl.dto.DqErrorDto;
 import com.booknest.etl.dto.UserRawMessage;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.CustomerMessageProducer;
 import com.booknest.etl.staging.StagingCustomerRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,17 +34,74 @@ public class CustomerRawConsumer {
     private final DataQualityService dataQualityService;
     private final CustomerMessageProducer customerProducer;
     private final StagingCustomerRepository stagingCustomerRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.customer-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleCustomerRawBatch(List<Message> deliveries) {
+        List<UserRawMessage> customers = rawDeliveryUnpacker.unpack(deliveries, UserRawMessage.class, "customer.error");
+        Map<UserRawMessage, String> hashes = new LinkedHashMap<>();
+        for (UserRawMessage customer : customers) {
+            try {
+                UserRawMessage normalized = dataNormalizationService.normalize(customer);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing customer {}: {}", customer.getUserId(), e.getMessage(), e);
+                customerProducer.sendToError(customer, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<UserRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.CUSTOMER, hashes,
+                customer -> List.of(customer.getUserId()));
+
+        List<StagingRow<UserRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((customer, contentHash) -> {
+            if (unchanged.contains(customer)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(customer, dataQualityService.validateUser(customer), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing customer {}: {}", customer.getUserId(), e.getMessage(), e);
+                customerProducer.sendToError(customer, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.customer-raw}")
-    public void handleCustomerRaw(UserRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received customer {} - PERSISTING TO STAGING_DB", message.getUserId());
+            stagingCustomerRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} customers failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleCustomerRaw);
+            return;
+        }
 
-            message = dataNormalizationService.normalize(message);
+        int validated = 0;
+        for (StagingRow<UserRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    customerProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    customerProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Customer {} validation failed: {}", row.getRecord().getUserId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward customer {}: {}", row.getRecord().getUserId(), e.getMessage());
+                customerProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} customers: {} validated, {} rejected, {} unchanged",
+                customers.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleCustomerRaw(StagingRow<UserRawMessage> row) {
+        UserRawMessage message = row.getRecord();
+        try {
             try {
-                stagingCustomerRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Customer {} inserted to staging with RAW status", message.getUserId());
+                stagingCustomerRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Customer {} - {}", message.getUserId(), errorMsg);
@@ -46,22 +109,15 @@ public class CustomerRawConsumer {
                 return;
             }
 
-            List<DqErrorDto> errors = dataQualityService.validateUser(message);
-
-            if (errors.isEmpty()) {
-                stagingCustomerRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 customerProducer.sendToQuality(message);
                 log.info("Customer {} validated → forwarded to quality queue", message.getUserId());
             } else {
-                stagingCustomerRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                customerProducer.sendToError(message, errors.toString());
-                log.warn("Customer {} validation failed: {} → sent to error queue", 
-                    message.getUserId(), errors);
+                customerProducer.sendToError(message, row.getErrors());
+                log.warn("Customer {} validation failed: {} → sent to error queue", message.getUserId(), row.getErrors());
             }
-
         } catch (Exception e) {
-            log.error("Unexpected error processing customer {}: {}", 
-                message.getUserId(), e.getMessage(), e);
+            log.error("Unexpected error processing customer {}: {}", message.getUserId(), e.getMessage(), e);
             customerProducer.sendToError(message, "Processing error: " + e.getMessage());
         }
     }
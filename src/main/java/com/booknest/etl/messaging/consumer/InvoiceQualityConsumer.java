@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -34,7 +36,7 @@ public class InvoiceQualityConsumer {
             stagingInvoiceRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             log.debug("Saved invoice {} to staging_db", transformed.getInvoiceId());
 
-            sourceDbLoaderService.loadInvoicesToSource();
+            sourceDbLoaderService.loadInvoices(List.of(transformed.getInvoiceId()));
             log.info("Invoice {} processed: quality queue → transform → staging_db → source_db (partial)", 
                 transformed.getInvoiceId());
 
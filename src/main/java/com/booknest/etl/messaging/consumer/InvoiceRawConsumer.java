@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import com.booknest.etl.dto.DqErrorDto;
 import com.booknest.etl.dto.InvoiceRawMessage;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.InvoiceMessageProducer;
 import com.booknest.etl.repository.staging.StagingInvoiceRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,34 +33,87 @@ public class InvoiceRawConsumer {
     private final DataQualityService dataQualityService;
     private final InvoiceMessageProducer invoiceProducer;
     private final StagingInvoiceRepository stagingInvoiceRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.invoice-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleInvoiceRawBatch(List<Message> deliveries) {
+        List<InvoiceRawMessage> invoices = rawDeliveryUnpacker.unpack(deliveries, InvoiceRawMessage.class, "invoice.error");
+        Map<InvoiceRawMessage, String> hashes = new LinkedHashMap<>();
+        for (InvoiceRawMessage invoice : invoices) {
+            try {
+                InvoiceRawMessage normalized = dataNormalizationService.normalize(invoice);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing invoice {}: {}", invoice.getInvoiceId(), e.getMessage(), e);
+                invoiceProducer.sendToError(invoice, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<InvoiceRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.INVOICE, hashes,
+                invoice -> List.of(invoice.getInvoiceId()));
+
+        List<StagingRow<InvoiceRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((invoice, contentHash) -> {
+            if (unchanged.contains(invoice)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(invoice, dataQualityService.validateInvoice(invoice), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing invoice {}: {}", invoice.getInvoiceId(), e.getMessage(), e);
+                invoiceProducer.sendToError(invoice, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.invoice-raw}")
-    public void handleInvoiceRaw(InvoiceRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received invoice {} - PERSISTING TO STAGING_DB", message.getInvoiceId());
+            stagingInvoiceRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} invoices failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleInvoiceRaw);
+            return;
+        }
 
-            message = dataNormalizationService.normalize(message);
+        int validated = 0;
+        for (StagingRow<InvoiceRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    invoiceProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    invoiceProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Invoice {} validation failed: {}", row.getRecord().getInvoiceId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward invoice {}: {}", row.getRecord().getInvoiceId(), e.getMessage());
+                invoiceProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} invoices: {} validated, {} rejected, {} unchanged",
+                invoices.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleInvoiceRaw(StagingRow<InvoiceRawMessage> row) {
+        InvoiceRawMessage message = row.getRecord();
+        try {
             try {
-                stagingInvoiceRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Invoice {} inserted to staging with RAW status", message.getInvoiceId());
+                stagingInvoiceRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Invoice {} - {}", message.getInvoiceId(), errorMsg);
                 invoiceProducer.sendToError(message, errorMsg);
                 return;
             }
-            
-            List<DqErrorDto> errors = dataQualityService.validateInvoice(message);
 
-            if (errors.isEmpty()) {
-                stagingInvoiceRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 invoiceProducer.sendToQuality(message);
                 log.info("Invoice {} validated → forwarded to quality queue", message.getInvoiceId());
             } else {
-                stagingInvoiceRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                invoiceProducer.sendToError(message, errors.toString());
-                log.warn("Invoice {} validation failed: {}", message.getInvoiceId(), errors);
+                invoiceProducer.sendToError(message, row.getErrors());
+                log.warn("Invoice {} validation failed: {} → sent to error queue", message.getInvoiceId(), row.getErrors());
             }
         } catch (Exception e) {
             log.error("Unexpected error processing invoice {}: {}", message.getInvoiceId(), e.getMessage(), e);
@@ -0,0 +1,151 @@
+package com.booknest.etl.messaging.consumer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.booknest.etl.config.ListenerContainerTuning;
+import com.booknest.etl.config.ListenerContainerTuning.Settings;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Adjusts each listener container between its configured bounds from the queue depth and the share of
+ * time its consumers spend in the listener. A queue with a backlog of at least {@code scale-up-depth}
+ * ready messages whose consumers are busy at least {@code scale-up-utilization} of the time gets one more
+ * consumer and double the prefetch; an empty queue whose consumers are mostly idle gives one back and
+ * halves the prefetch. One step per queue per interval keeps the scaler from oscillating.
+ *
+ * <p>Each step starts from the container's active consumer count and pins its maximum to the new count, so
+ * the container does not add or remove consumers on its own in between. The new prefetch applies to
+ * consumers started after the change, which is when it matters: the added consumer of a scale-up takes the
+ * larger prefetch.
+ */
+@Component
+@ConditionalOnProperty(name = "etl.queues.autoscale.enabled", havingValue = "true")
+public class ListenerAutoscaler {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerAutoscaler.class);
+
+    private static final class QueueState {
+        volatile int concurrency;
+        volatile int prefetch;
+        volatile long depth;
+        volatile double utilization;
+        long busyNanos;
+        long sampledAt;
+    }
+
+    private final RabbitListenerEndpointRegistry registry;
+    private final AmqpAdmin amqpAdmin;
+    private final ListenerContainerTuning tuning;
+    private final MeterRegistry meterRegistry;
+    private final long scaleUpDepth;
+    private final double scaleUpUtilization;
+    private final double scaleDownUtilization;
+    private final Map<String, QueueState> states = new ConcurrentHashMap<>();
+
+    public ListenerAutoscaler(RabbitListenerEndpointRegistry registry,
+                              AmqpAdmin amqpAdmin,
+                              ListenerContainerTuning tuning,
+                              MeterRegistry meterRegistry,
+                              @Value("${etl.queues.autoscale.scale-up-depth:1000}") long scaleUpDepth,
+                              @Value("${etl.queues.autoscale.scale-up-utilization:0.75}") double scaleUpUtilization,
+                              @Value("${etl.queues.autoscale.scale-down-utilization:0.25}") double scaleDownUtilization) {
+        this.registry = registry;
+        this.amqpAdmin = amqpAdmin;
+        this.tuning = tuning;
+        this.meterRegistry = meterRegistry;
+        this.scaleUpDepth = scaleUpDepth;
+        this.scaleUpUtilization = scaleUpUtilization;
+        this.scaleDownUtilization = scaleDownUtilization;
+    }
+
+    @Scheduled(fixedDelayString = "${etl.queues.autoscale.interval-ms:15000}",
+               initialDelayString = "${etl.queues.autoscale.interval-ms:15000}")
+    public void adjust() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container instanceof SimpleMessageListenerContainer simple && simple.isRunning()) {
+                try {
+                    adjust(simple);
+                } catch (RuntimeException e) {
+                    log.warn("Cannot autoscale listener of {}: {}", simple.getQueueNames()[0], e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void adjust(SimpleMessageListenerContainer container) {
+        String queue = container.getQueueNames()[0];
+        Settings settings = tuning.forQueue(queue);
+        QueueState state = states.get(queue);
+        if (state == null) {
+            // The first sample only sets the baseline for utilization.
+            states.put(queue, register(container, queue));
+            return;
+        }
+
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        long now = System.nanoTime();
+        long busy = tuning.busyNanos(queue);
+        if (info == null) {
+            return;
+        }
+        state.concurrency = container.getActiveConsumerCount();
+        state.depth = info.getMessageCount();
+        state.utilization = Math.min(1.0, (double) (busy - state.busyNanos)
+                / ((now - state.sampledAt) * Math.max(state.concurrency, 1)));
+        state.busyNanos = busy;
+        state.sampledAt = now;
+
+        if (state.depth >= scaleUpDepth && state.utilization >= scaleUpUtilization
+                && state.concurrency < settings.getMaxConsumers()) {
+            state.prefetch = Math.min(state.prefetch * 2, settings.getMaxPrefetch());
+            apply(container, queue, state, settings, state.concurrency + 1, "up");
+        } else if (state.depth == 0 && state.utilization < scaleDownUtilization
+                && state.concurrency > settings.getMinConsumers()) {
+            state.prefetch = Math.max(state.prefetch / 2, tuning.initialPrefetch(queue));
+            apply(container, queue, state, settings, state.concurrency - 1, "down");
+        }
+    }
+
+    private void apply(SimpleMessageListenerContainer container, String queue, QueueState state, Settings settings,
+                       int consumers, String direction) {
+        container.setPrefetchCount(state.prefetch);
+        // The container rejects a maximum below its concurrent count, so widen the maximum before moving the
+        // count and pin it again afterwards.
+        container.setMaxConcurrentConsumers(settings.getMaxConsumers());
+        container.setConcurrentConsumers(consumers);
+        container.setMaxConcurrentConsumers(consumers);
+        state.concurrency = consumers;
+        meterRegistry.counter("etl.listener.scaling", "queue", queue, "direction", direction).increment();
+        log.info("Scaled {} {} to {} consumers, prefetch {} (depth {}, utilization {})", queue, direction,
+                state.concurrency, state.prefetch, state.depth, String.format("%.2f", state.utilization));
+    }
+
+    private QueueState register(SimpleMessageListenerContainer container, String queue) {
+        QueueState state = new QueueState();
+        state.concurrency = container.getActiveConsumerCount();
+        state.prefetch = tuning.initialPrefetch(queue);
+        state.busyNanos = tuning.busyNanos(queue);
+        state.sampledAt = System.nanoTime();
+        Tags tags = Tags.of("queue", queue);
+        meterRegistry.gauge("etl.listener.concurrency", tags, state, s -> s.concurrency);
+        meterRegistry.gauge("etl.listener.prefetch", tags, state, s -> s.prefetch);
+        meterRegistry.gauge("etl.listener.utilization", tags, state, s -> s.utilization);
+        meterRegistry.gauge("etl.queue.depth", tags, state, s -> s.depth);
+        return state;
+    }
+}
@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -34,7 +36,7 @@ public class OrderItemQualityConsumer {
 
             log.debug("Saved order item to staging_db");
 
-            sourceDbLoaderService.loadOrderItemsToSource();
+            sourceDbLoaderService.loadOrderItems(List.of(StagingOrderItemRepository.orderKeyOf(transformed)));
             log.info("Order item processed: quality queue → transform → staging_db → source_db");
 
         } catch (Exception e) {
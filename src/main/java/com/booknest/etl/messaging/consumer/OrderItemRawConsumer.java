@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import com.booknest.etl.dto.DqErrorDto;
 import com.booknest.etl.dto.OrderItemRawMessage;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.OrderItemMessageProducer;
 import com.booknest.etl.repository.staging.StagingOrderItemRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,37 +33,90 @@ public class OrderItemRawConsumer {
     private final DataQualityService dataQualityService;
     private final OrderItemMessageProducer orderItemProducer;
     private final StagingOrderItemRepository stagingOrderItemRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.orderitem-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleOrderItemRawBatch(List<Message> deliveries) {
+        List<OrderItemRawMessage> items = rawDeliveryUnpacker.unpack(deliveries, OrderItemRawMessage.class, "orderitem.error");
+        Map<OrderItemRawMessage, String> hashes = new LinkedHashMap<>();
+        for (OrderItemRawMessage item : items) {
+            try {
+                OrderItemRawMessage normalized = dataNormalizationService.normalize(item);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing order item (book={}): {}", item.getBookId(), e.getMessage(), e);
+                orderItemProducer.sendToError(item, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<OrderItemRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.ORDER_ITEM, hashes,
+                item -> List.of(StagingOrderItemRepository.orderKeyOf(item), item.getBookId()));
+
+        List<StagingRow<OrderItemRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((item, contentHash) -> {
+            if (unchanged.contains(item)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(item, dataQualityService.validateOrderItem(item), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing order item (book={}): {}", item.getBookId(), e.getMessage(), e);
+                orderItemProducer.sendToError(item, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.orderitem-raw}")
-    public void handleOrderItemRaw(OrderItemRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received order item (book={}) - PERSISTING TO STAGING_DB", message.getBookId());
+            stagingOrderItemRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} order items failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleOrderItemRaw);
+            return;
+        }
+
+        int validated = 0;
+        for (StagingRow<OrderItemRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    orderItemProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    orderItemProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Order item (book={}) validation failed: {}", row.getRecord().getBookId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward order item (book={}): {}", row.getRecord().getBookId(), e.getMessage());
+                orderItemProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} order items: {} validated, {} rejected, {} unchanged",
+                items.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
-            message = dataNormalizationService.normalize(message);
-            
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleOrderItemRaw(StagingRow<OrderItemRawMessage> row) {
+        OrderItemRawMessage message = row.getRecord();
+        try {
             try {
-                stagingOrderItemRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Order item (book={}) inserted to staging with RAW status", message.getBookId());
+                stagingOrderItemRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Order item (book={}) - {}", message.getBookId(), errorMsg);
                 orderItemProducer.sendToError(message, errorMsg);
                 return;
             }
-            
-            List<DqErrorDto> errors = dataQualityService.validateOrderItem(message);
 
-            if (errors.isEmpty()) {
-                stagingOrderItemRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 orderItemProducer.sendToQuality(message);
                 log.info("Order item (book={}) validated → forwarded to quality queue", message.getBookId());
             } else {
-                stagingOrderItemRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                orderItemProducer.sendToError(message, errors.toString());
-                log.warn("Order item (book={}) validation failed: {}", message.getBookId(), errors);
+                orderItemProducer.sendToError(message, row.getErrors());
+                log.warn("Order item (book={}) validation failed: {} → sent to error queue", message.getBookId(), row.getErrors());
             }
         } catch (Exception e) {
-            log.error("Error processing order item: {}", e.getMessage(), e);
+            log.error("Unexpected error processing order item (book={}): {}", message.getBookId(), e.getMessage(), e);
             orderItemProducer.sendToError(message, "Processing error: " + e.getMessage());
         }
     }
@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -34,7 +36,7 @@ public class OrderQualityConsumer {
             stagingOrderRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             log.debug("Saved order {} to staging_db", transformed.getOrderId());
 
-            sourceDbLoaderService.loadOrdersToSource();
+            sourceDbLoaderService.loadOrders(List.of(transformed.getOrderId()));
 
             log.info("Order {} processed: quality queue → transform → staging → source_db", 
                 transformed.getOrderId());
@@ -1,18 +1,24 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import com.booknest.etl.dto.DqErrorDto;
 import com.booknest.etl.dto.OrderRawMessage;
-import com.booknest.etl.dq.DataQualityStatus;
 import com.booknest.etl.messaging.producer.OrderMessageProducer;
 import com.booknest.etl.repository.staging.StagingOrderRepository;
+import com.booknest.etl.repository.staging.StagingRow;
 import com.booknest.etl.service.dq.DataQualityService;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
 import com.booknest.etl.service.dq.DataNormalizationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,34 +33,87 @@ public class OrderRawConsumer {
     private final DataQualityService dataQualityService;
     private final OrderMessageProducer orderProducer;
     private final StagingOrderRepository stagingOrderRepository;
+    private final ChangeDetectionService changeDetectionService;
+    private final RawDeliveryUnpacker rawDeliveryUnpacker;
+
+    @RabbitListener(queues = "${etl.queues.order-raw}", containerFactory = "rawBatchListenerContainerFactory")
+    public void handleOrderRawBatch(List<Message> deliveries) {
+        List<OrderRawMessage> orders = rawDeliveryUnpacker.unpack(deliveries, OrderRawMessage.class, "order.error");
+        Map<OrderRawMessage, String> hashes = new LinkedHashMap<>();
+        for (OrderRawMessage order : orders) {
+            try {
+                OrderRawMessage normalized = dataNormalizationService.normalize(order);
+                hashes.put(normalized, changeDetectionService.hash(normalized));
+            } catch (Exception e) {
+                log.error("Unexpected error processing order {}: {}", order.getOrderId(), e.getMessage(), e);
+                orderProducer.sendToError(order, "Processing error: " + e.getMessage());
+            }
+        }
+        Set<OrderRawMessage> unchanged = changeDetectionService.findUnchanged(StagingEntity.ORDER, hashes,
+                order -> List.of(order.getOrderId()));
+
+        List<StagingRow<OrderRawMessage>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((order, contentHash) -> {
+            if (unchanged.contains(order)) {
+                return;
+            }
+            try {
+                rows.add(StagingRow.of(order, dataQualityService.validateOrder(order), contentHash));
+            } catch (Exception e) {
+                log.error("Unexpected error processing order {}: {}", order.getOrderId(), e.getMessage(), e);
+                orderProducer.sendToError(order, "Processing error: " + e.getMessage());
+            }
+        });
 
-    @RabbitListener(queues = "${etl.queues.order-raw}")
-    public void handleOrderRaw(OrderRawMessage message) {
         try {
-            log.info("RAW CONSUMER: Received order {} - PERSISTING TO STAGING_DB", message.getOrderId());
+            stagingOrderRepository.upsertAll(rows);
+        } catch (Exception batchError) {
+            log.warn("Staging batch of {} orders failed ({}), processing them one by one", rows.size(), batchError.getMessage());
+            rows.forEach(this::handleOrderRaw);
+            return;
+        }
 
-            message = dataNormalizationService.normalize(message);
+        int validated = 0;
+        for (StagingRow<OrderRawMessage> row : rows) {
+            try {
+                if (row.isValidated()) {
+                    orderProducer.sendToQuality(row.getRecord());
+                    validated++;
+                } else {
+                    orderProducer.sendToError(row.getRecord(), row.getErrors());
+                    log.warn("Order {} validation failed: {}", row.getRecord().getOrderId(), row.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("Cannot forward order {}: {}", row.getRecord().getOrderId(), e.getMessage());
+                orderProducer.sendToError(row.getRecord(), "Processing error: " + e.getMessage());
+            }
+        }
+        log.info("RAW CONSUMER: Batch of {} orders: {} validated, {} rejected, {} unchanged",
+                orders.size(), validated, rows.size() - validated, unchanged.size());
+    }
 
+    /**
+     * The single-record path, used when a staging batch fails so that a bad row is isolated. The row is
+     * already normalized, hashed and validated by the batch.
+     */
+    public void handleOrderRaw(StagingRow<OrderRawMessage> row) {
+        OrderRawMessage message = row.getRecord();
+        try {
             try {
-                stagingOrderRepository.upsert(message, DataQualityStatus.RAW, null);
-                log.info("Order {} inserted to staging with RAW status", message.getOrderId());
+                stagingOrderRepository.upsert(message, row.getStatus(), row.getErrors(), row.getContentHash());
             } catch (Exception insertError) {
                 String errorMsg = "Cannot insert to staging DB: " + insertError.getMessage();
                 log.error("Order {} - {}", message.getOrderId(), errorMsg);
                 orderProducer.sendToError(message, errorMsg);
                 return;
             }
-            
-            List<DqErrorDto> errors = dataQualityService.validateOrder(message);
 
-            if (errors.isEmpty()) {
-                stagingOrderRepository.upsert(message, DataQualityStatus.VALIDATED, null);
+            if (row.isValidated()) {
                 orderProducer.sendToQuality(message);
                 log.info("Order {} validated → forwarded to quality queue", message.getOrderId());
             } else {
-                stagingOrderRepository.upsert(message, DataQualityStatus.REJECTED, errors.toString());
-                orderProducer.sendToError(message, errors.toString());
-                log.warn("Order {} validation failed: {}", message.getOrderId(), errors);
+                orderProducer.sendToError(message, row.getErrors());
+                log.warn("Order {} validation failed: {} → sent to error queue", message.getOrderId(), row.getErrors());
             }
         } catch (Exception e) {
             log.error("Unexpected error processing order {}: {}", message.getOrderId(), e.getMessage(), e);
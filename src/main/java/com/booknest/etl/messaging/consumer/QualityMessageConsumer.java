@@ -1,5 +1,7 @@
 package com.booknest.etl.messaging.consumer;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
@@ -52,7 +54,7 @@ public class QualityMessageConsumer {
             stagingCustomerRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             
             // Load to source_db immediately 
-            sourceDbLoaderService.loadCustomersToSource();
+            sourceDbLoaderService.loadCustomers(List.of(transformed.getUserId()));
             
             log.info("Customer {} processed: quality queue → transform → staging → source_db", transformed.getUserId());
         } catch (Exception e) {
@@ -70,7 +72,7 @@ public class QualityMessageConsumer {
             log.debug("Saving validated book {} to staging_db", transformed.getBookId());
             stagingBookRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             
-            sourceDbLoaderService.loadBooksToSource();
+            sourceDbLoaderService.loadBooks(List.of(transformed.getBookId()));
             
             log.info("Book {} processed: quality queue → transform → staging → source_db", transformed.getBookId());
         } catch (Exception e) {
@@ -88,7 +90,7 @@ public class QualityMessageConsumer {
             log.debug("Saving validated order {} to staging_db", transformed.getOrderId());
             stagingOrderRepository.upsert(transformed, DataQualityStatus.VALIDATED, null);
             
-            sourceDbLoaderService.loadOrdersToSource();
+            sourceDbLoaderService.loadOrders(List.of(transformed.getOrderId()));
             
             log.info("Order {} processed: quality queue → transform → staging → source_db", transformed.getOrderId());
         } catch (Exception e) {
@@ -0,0 +1,76 @@
+package com.booknest.etl.messaging.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.booknest.etl.dto.RawBatch;
+import com.booknest.etl.messaging.producer.ConfirmingPublisher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Converts the deliveries of a batch listener into records. A delivery holds either one record or a
+ * {@link RawBatch} envelope. A delivery that cannot be converted (malformed JSON, unknown or wrong type)
+ * is republished unchanged to the entity's error routing key and left out of the result, so one poison
+ * message does not fail, or endlessly redeliver, the batch it arrived in. If the republish itself fails,
+ * the whole batch fails and is redelivered rather than the delivery being dropped.
+ */
+@Component
+public class RawDeliveryUnpacker {
+
+    private static final Logger log = LoggerFactory.getLogger(RawDeliveryUnpacker.class);
+
+    private final MessageConverter converter;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final MeterRegistry meterRegistry;
+    private final String exchange;
+
+    public RawDeliveryUnpacker(MessageConverter converter,
+                               ConfirmingPublisher confirmingPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${etl.exchange}") String exchange) {
+        this.converter = converter;
+        this.confirmingPublisher = confirmingPublisher;
+        this.meterRegistry = meterRegistry;
+        this.exchange = exchange;
+    }
+
+    public <T> List<T> unpack(List<Message> deliveries, Class<T> type, String errorRoutingKey) {
+        List<T> records = new ArrayList<>(deliveries.size());
+        for (Message delivery : deliveries) {
+            try {
+                Object payload = converter.fromMessage(delivery);
+                if (payload instanceof RawBatch<?> batch) {
+                    for (Object record : batch.getRecords()) {
+                        records.add(type.cast(record));
+                    }
+                } else {
+                    records.add(type.cast(payload));
+                }
+            } catch (RuntimeException e) {
+                quarantine(delivery, type, errorRoutingKey, e);
+            }
+        }
+        return records;
+    }
+
+    private void quarantine(Message delivery, Class<?> type, String errorRoutingKey, RuntimeException cause) {
+        meterRegistry.counter("etl.consumer.poison", "type", type.getSimpleName()).increment();
+        log.error("Unreadable {} delivery (tag {}), moved to {}: {}", type.getSimpleName(),
+                delivery.getMessageProperties().getDeliveryTag(), errorRoutingKey, cause.getMessage());
+        try {
+            confirmingPublisher.send(exchange, errorRoutingKey, delivery);
+        } catch (RuntimeException e) {
+            throw new ListenerExecutionFailedException("Cannot move unreadable delivery to " + errorRoutingKey
+                    + ", requeueing its batch", e, delivery);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -16,14 +15,19 @@ public class BookMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(BookMessageProducer.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(BookRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "book.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("book.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "book.raw", message);
             log.debug("Sent book {} to raw queue", message.getBookId());
         } catch (Exception e) {
             log.error("Failed to send book {} to raw queue: {}", message.getBookId(), e.getMessage(), e);
@@ -33,7 +37,7 @@ public class BookMessageProducer {
 
     public void sendToQuality(BookRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "book.quality", message);
+            confirmingPublisher.send(exchange, "book.quality", message);
             log.debug("Sent book {} to quality queue", message.getBookId());
         } catch (Exception e) {
             log.error("Failed to send book {} to quality queue: {}", message.getBookId(), e.getMessage(), e);
@@ -43,7 +47,7 @@ public class BookMessageProducer {
 
     public void sendToError(BookRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "book.error", message);
+            confirmingPublisher.send(exchange, "book.error", message);
             log.warn("Sent book {} to error queue: {}", message.getBookId(), errorReason);
         } catch (Exception e) {
             log.error("Failed to send book {} to error queue: {}", message.getBookId(), e.getMessage(), e);
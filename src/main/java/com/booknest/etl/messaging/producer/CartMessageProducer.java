@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,14 +14,19 @@ import lombok.RequiredArgsConstructor;
 public class CartMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(CartMessageProducer.class);
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(CartRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "cart.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("cart.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "cart.raw", message);
             log.debug("Sent cart {} to raw queue", message.getCartId());
         } catch (Exception e) {
             log.error("Failed to send cart {} to raw queue: {}", message.getCartId(), e.getMessage(), e);
@@ -32,7 +36,7 @@ public class CartMessageProducer {
 
     public void sendToQuality(CartRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "cart.quality", message);
+            confirmingPublisher.send(exchange, "cart.quality", message);
             log.debug("Sent cart {} to quality queue", message.getCartId());
         } catch (Exception e) {
             log.error("Failed to send cart {} to quality queue: {}", message.getCartId(), e.getMessage(), e);
@@ -42,7 +46,7 @@ public class CartMessageProducer {
 
     public void sendToError(CartRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "cart.error", message);
+            confirmingPublisher.send(exchange, "cart.error", message);
             log.warn("Sent cart {} to error queue: {}", message.getCartId(), errorReason);
         } catch (Exception e) {
             log.error("Failed to send cart {} to error queue: {}", message.getCartId(), e.getMessage(), e);
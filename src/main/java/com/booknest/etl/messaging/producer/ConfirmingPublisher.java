@@ -0,0 +1,205 @@
+package com.booknest.etl.messaging.producer;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes through the {@link RabbitTemplate} and tracks broker confirms asynchronously. Every message
+ * gets its own correlation id; the producer returns as soon as the message is written and at most
+ * {@code max-in-flight} messages may be unconfirmed at once, so a slow broker throttles the producers
+ * instead of filling memory. A message that is nacked or returned unroutable is sent again after
+ * {@code retry-delay-ms}, up to {@code max-retries} times, and is then logged and counted as failed.
+ *
+ * <p>With confirms disabled this is a plain {@code convertAndSend}.
+ */
+@Component
+public class ConfirmingPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmingPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final long retryDelayMs;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService retries;
+    private final Timer acked;
+    private final Timer nacked;
+    private final Timer returned;
+    private final Counter retried;
+    private final Counter failed;
+
+    public ConfirmingPublisher(RabbitTemplate rabbitTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${etl.messaging.confirms.enabled:false}") boolean enabled,
+                               @Value("${etl.messaging.confirms.max-in-flight:512}") int maxInFlight,
+                               @Value("${etl.messaging.confirms.max-retries:3}") int maxRetries,
+                               @Value("${etl.messaging.confirms.retry-delay-ms:500}") long retryDelayMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        this.maxRetries = maxRetries;
+        this.retryDelayMs = retryDelayMs;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acked = confirmTimer(meterRegistry, "ack");
+        this.nacked = confirmTimer(meterRegistry, "nack");
+        this.returned = confirmTimer(meterRegistry, "returned");
+        this.retried = meterRegistry.counter("etl.publish.retried");
+        this.failed = meterRegistry.counter("etl.publish.failed");
+        meterRegistry.gauge("etl.publish.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits());
+        if (enabled) {
+            // Returns are reported through the correlation data; the callback only has to exist.
+            rabbitTemplate.setReturnsCallback(message -> log.debug("Message returned by the broker: {} {}",
+                    message.getReplyCode(), message.getReplyText()));
+            retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "etl-publish-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            retries = null;
+        }
+    }
+
+    private static Timer confirmTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("etl.publish.confirm")
+                .description("Time from publish to broker confirm")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks only while the in-flight window is full.
+     */
+    public void send(String exchange, String routingKey, Object payload) {
+        if (!enabled) {
+            rabbitTemplate.convertAndSend(exchange, routingKey, payload);
+            return;
+        }
+        // Converted once so a retry sends the same bytes.
+        send(exchange, routingKey, rabbitTemplate.getMessageConverter().toMessage(payload, new MessageProperties()));
+    }
+
+    /**
+     * Sends an already converted message as is.
+     */
+    public void send(String exchange, String routingKey, Message message) {
+        if (!enabled) {
+            rabbitTemplate.send(exchange, routingKey, message);
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for publisher confirms", e);
+        }
+        try {
+            publish(exchange, routingKey, message, 0);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * The permit taken by {@link #send} is held across retries and released on the final outcome.
+     */
+    private void publish(String exchange, String routingKey, Message message, int attempt) {
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        long start = System.nanoTime();
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            long elapsed = System.nanoTime() - start;
+            if (error == null && confirm.isAck() && correlation.getReturned() == null) {
+                acked.record(elapsed, TimeUnit.NANOSECONDS);
+                inFlight.release();
+                return;
+            }
+            String reason;
+            if (error != null) {
+                reason = error.getMessage();
+                nacked.record(elapsed, TimeUnit.NANOSECONDS);
+            } else if (correlation.getReturned() != null) {
+                reason = "returned: " + correlation.getReturned().getReplyText();
+                returned.record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                reason = "nack: " + confirm.getReason();
+                nacked.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            retry(exchange, routingKey, message, attempt, correlation.getId(), reason);
+        });
+        rabbitTemplate.send(exchange, routingKey, message, correlation);
+    }
+
+    private void retry(String exchange, String routingKey, Message message, int attempt, String id, String reason) {
+        if (attempt >= maxRetries || retries.isShutdown()) {
+            failed.increment();
+            inFlight.release();
+            log.error("Giving up on message {} to {} after {} attempts ({})", id, routingKey, attempt + 1, reason);
+            return;
+        }
+        retried.increment();
+        log.warn("Message {} to {} not confirmed ({}), retrying", id, routingKey, reason);
+        retries.schedule(() -> {
+            try {
+                publish(exchange, routingKey, message, attempt + 1);
+            } catch (RuntimeException e) {
+                retry(exchange, routingKey, message, attempt + 1, id, e.getMessage());
+            }
+        }, retryDelayMs * (attempt + 1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until every message sent so far has been confirmed or given up on. Returns false on timeout.
+     */
+    public boolean awaitConfirms(long timeoutMs) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            if (inFlight.tryAcquire(maxInFlight, timeoutMs, TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+                return true;
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Number of messages given up on since startup.
+     */
+    public long failedCount() {
+        return (long) failed.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (retries != null) {
+            awaitConfirms(TimeUnit.SECONDS.toMillis(10));
+            retries.shutdown();
+        }
+    }
+}
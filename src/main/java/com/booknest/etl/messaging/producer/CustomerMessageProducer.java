@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -16,14 +15,19 @@ public class CustomerMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(CustomerMessageProducer.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(UserRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "customer.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("customer.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "customer.raw", message);
             log.debug("Sent customer {} to raw queue", message.getUserId());
         } catch (Exception e) {
             log.error("Failed to send customer {} to raw queue: {}", message.getUserId(), e.getMessage(), e);
@@ -33,7 +37,7 @@ public class CustomerMessageProducer {
 
     public void sendToQuality(UserRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "customer.quality", message);
+            confirmingPublisher.send(exchange, "customer.quality", message);
             log.debug("Sent customer {} to quality queue", message.getUserId());
         } catch (Exception e) {
             log.error("Failed to send customer {} to quality queue: {}", message.getUserId(), e.getMessage(), e);
@@ -43,7 +47,7 @@ public class CustomerMessageProducer {
 
     public void sendToError(UserRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "customer.error", message);
+            confirmingPublisher.send(exchange, "customer.error", message);
             log.warn("Sent customer {} to error queue: {}", message.getUserId(), errorReason);
         } catch (Exception e) {
             log.error("Failed to send customer {} to error queue: {}", message.getUserId(), e.getMessage(), e);
@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -11,13 +10,13 @@ public class EtlMessagePublisher {
 
     private static final Logger log = LoggerFactory.getLogger(EtlMessagePublisher.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
 
     @Value("${etl.exchange}")
     private String etlExchange;
 
-    public EtlMessagePublisher(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public EtlMessagePublisher(ConfirmingPublisher confirmingPublisher) {
+        this.confirmingPublisher = confirmingPublisher;
     }
 
     public void sendRaw(Object payload) {
@@ -33,7 +32,7 @@ public class EtlMessagePublisher {
     }
 
     private void send(String routingKey, Object payload) {
-        rabbitTemplate.convertAndSend(etlExchange, routingKey, payload);
+        confirmingPublisher.send(etlExchange, routingKey, payload);
         log.debug("Sent payload to routing key {}: {}", routingKey, payload);
     }
 }
@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,14 +14,19 @@ import lombok.RequiredArgsConstructor;
 public class InvoiceMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(InvoiceMessageProducer.class);
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(InvoiceRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "invoice.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("invoice.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "invoice.raw", message);
             log.debug("Sent invoice {} to raw queue", message.getInvoiceId());
         } catch (Exception e) {
             log.error("Failed to send invoice {} to raw queue: {}", message.getInvoiceId(), e.getMessage(), e);
@@ -32,7 +36,7 @@ public class InvoiceMessageProducer {
 
     public void sendToQuality(InvoiceRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "invoice.quality", message);
+            confirmingPublisher.send(exchange, "invoice.quality", message);
             log.debug("Sent invoice {} to quality queue", message.getInvoiceId());
         } catch (Exception e) {
             log.error("Failed to send invoice {} to quality queue: {}", message.getInvoiceId(), e.getMessage(), e);
@@ -42,7 +46,7 @@ public class InvoiceMessageProducer {
 
     public void sendToError(InvoiceRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "invoice.error", message);
+            confirmingPublisher.send(exchange, "invoice.error", message);
             log.warn("Sent invoice {} to error queue: {}", message.getInvoiceId(), errorReason);
         } catch (Exception e) {
             log.error("Failed to send invoice {} to error queue: {}", message.getInvoiceId(), e.getMessage(), e);
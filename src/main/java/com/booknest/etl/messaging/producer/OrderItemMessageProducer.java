@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,14 +14,19 @@ import lombok.RequiredArgsConstructor;
 public class OrderItemMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(OrderItemMessageProducer.class);
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(OrderItemRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "orderitem.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("orderitem.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "orderitem.raw", message);
             log.debug("Sent order item (book={}) to raw queue", message.getBookId());
         } catch (Exception e) {
             log.error("Failed to send order item to raw queue: {}", e.getMessage(), e);
@@ -32,7 +36,7 @@ public class OrderItemMessageProducer {
 
     public void sendToQuality(OrderItemRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "orderitem.quality", message);
+            confirmingPublisher.send(exchange, "orderitem.quality", message);
             log.debug("Sent order item (book={}) to quality queue", message.getBookId());
         } catch (Exception e) {
             log.error("Failed to send order item to quality queue: {}", e.getMessage(), e);
@@ -42,7 +46,7 @@ public class OrderItemMessageProducer {
 
     public void sendToError(OrderItemRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "orderitem.error", message);
+            confirmingPublisher.send(exchange, "orderitem.error", message);
             log.warn("Sent order item to error queue: {}", errorReason);
         } catch (Exception e) {
             log.error("Failed to send order item to error queue: {}", e.getMessage(), e);
@@ -2,7 +2,6 @@ package com.booknest.etl.messaging.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,14 +14,19 @@ import lombok.RequiredArgsConstructor;
 public class OrderMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(OrderMessageProducer.class);
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final RawBatchPublisher rawBatchPublisher;
 
     @Value("${etl.exchange}")
     private String exchange;
 
     public void sendToRaw(OrderRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "order.raw", message);
+            if (rawBatchPublisher.isEnabled()) {
+                rawBatchPublisher.add("order.raw", message);
+                return;
+            }
+            confirmingPublisher.send(exchange, "order.raw", message);
             log.debug("Sent order {} to raw queue", message.getOrderId());
         } catch (Exception e) {
             log.error("Failed to send order {} to raw queue: {}", message.getOrderId(), e.getMessage(), e);
@@ -32,7 +36,7 @@ public class OrderMessageProducer {
 
     public void sendToQuality(OrderRawMessage message) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "order.quality", message);
+            confirmingPublisher.send(exchange, "order.quality", message);
             log.debug("Sent order {} to quality queue", message.getOrderId());
         } catch (Exception e) {
             log.error("Failed to send order {} to quality queue: {}", message.getOrderId(), e.getMessage(), e);
@@ -42,7 +46,7 @@ public class OrderMessageProducer {
 
     public void sendToError(OrderRawMessage message, String errorReason) {
         try {
-            rabbitTemplate.convertAndSend(exchange, "order.error", message);
+            confirmingPublisher.send(exchange, "order.error", message);
             log.warn("Sent order {} to error queue: {}", message.getOrderId(), errorReason);
         } catch (Exception e) {
             log.error("Failed to send order {} to error queue: {}", message.getOrderId(), e.getMessage(), e);
@@ -0,0 +1,138 @@
+package com.booknest.etl.messaging.producer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.booknest.etl.dto.RawBatch;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Packs raw records into {@link RawBatch} envelopes, one buffer per routing key. A buffer is sent once it
+ * holds {@code max-records} records or its oldest record is {@code max-delay-ms} old, whichever comes
+ * first, so bulk extracts publish a few hundred times fewer messages while a trickle of records is still
+ * delivered promptly. Sending happens under the buffer's lock, which keeps batches of one key in order
+ * and makes producers wait while the broker is slow.
+ */
+@Component
+public class RawBatchPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RawBatchPublisher.class);
+
+    private static final long CONFIRM_TIMEOUT_MS = 30_000;
+
+    private static final class Buffer {
+        List<Object> records = new ArrayList<>();
+        long firstAddedAt;
+    }
+
+    private final ConfirmingPublisher confirmingPublisher;
+    private final String exchange;
+    private final boolean enabled;
+    private final int maxRecords;
+    private final long maxDelayNanos;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public RawBatchPublisher(ConfirmingPublisher confirmingPublisher,
+                             @Value("${etl.exchange}") String exchange,
+                             @Value("${etl.messaging.raw-batch.enabled:false}") boolean enabled,
+                             @Value("${etl.messaging.raw-batch.max-records:500}") int maxRecords,
+                             @Value("${etl.messaging.raw-batch.max-delay-ms:200}") long maxDelayMs) {
+        this.confirmingPublisher = confirmingPublisher;
+        this.exchange = exchange;
+        this.enabled = enabled;
+        this.maxRecords = maxRecords;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        if (enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "etl-raw-batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(maxDelayMs / 2, 1);
+            flusher.scheduleWithFixedDelay(this::flushExpired, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(String routingKey, Object record) {
+        Buffer buffer = buffers.computeIfAbsent(routingKey, key -> new Buffer());
+        synchronized (buffer) {
+            if (buffer.records.isEmpty()) {
+                buffer.firstAddedAt = System.nanoTime();
+            }
+            buffer.records.add(record);
+            if (buffer.records.size() >= maxRecords) {
+                send(routingKey, buffer);
+            }
+        }
+    }
+
+    /**
+     * Sends every non-empty buffer now, e.g. before recording that the records have been published. With
+     * publisher confirms enabled it also waits for the broker to confirm them, and returns false if they
+     * were not all confirmed or given up on in time.
+     */
+    public boolean flush() {
+        buffers.forEach((routingKey, buffer) -> {
+            synchronized (buffer) {
+                if (!buffer.records.isEmpty()) {
+                    send(routingKey, buffer);
+                }
+            }
+        });
+        if (!confirmingPublisher.awaitConfirms(CONFIRM_TIMEOUT_MS)) {
+            log.warn("Raw batches still unconfirmed after {} ms", CONFIRM_TIMEOUT_MS);
+            return false;
+        }
+        return true;
+    }
+
+    private void flushExpired() {
+        long now = System.nanoTime();
+        buffers.forEach((routingKey, buffer) -> {
+            synchronized (buffer) {
+                if (!buffer.records.isEmpty() && now - buffer.firstAddedAt >= maxDelayNanos) {
+                    try {
+                        send(routingKey, buffer);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to send raw batch to {}: {}", routingKey, e.getMessage(), e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * The buffer is only emptied once the send succeeded, so a failed batch is retried by the next flush.
+     */
+    private void send(String routingKey, Buffer buffer) {
+        confirmingPublisher.send(exchange, routingKey, RawBatch.builder().records(buffer.records).build());
+        log.debug("Sent batch of {} records to {}", buffer.records.size(), routingKey);
+        buffer.records = new ArrayList<>();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+    }
+}
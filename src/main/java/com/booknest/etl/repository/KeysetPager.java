@@ -0,0 +1,67 @@
+package com.booknest.etl.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a table in primary key order one page at a time ({@code WHERE id > ? ORDER BY id LIMIT ?}).
+ * Each page is a short query of its own, so no connection or cursor is held between pages and only one
+ * page is in memory. The next page is only fetched once the previous one has been consumed.
+ */
+public final class KeysetPager {
+
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        List<T> fetch(int afterKey, int limit);
+    }
+
+    private KeysetPager() {
+    }
+
+    /**
+     * Streams every row, starting after key 0 (source_db keys are positive AUTO_INCREMENT ids).
+     */
+    public static <T> Stream<T> stream(PageQuery<T> query, ToIntFunction<T> key, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        Iterator<T> rows = new Iterator<>() {
+            private List<T> page = List.of();
+            private int index;
+            private int lastKey;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                page = query.fetch(lastKey, pageSize);
+                index = 0;
+                exhausted = page.size() < pageSize;
+                if (!page.isEmpty()) {
+                    lastKey = key.applyAsInt(page.get(page.size() - 1));
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
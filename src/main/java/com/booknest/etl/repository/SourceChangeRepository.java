@@ -0,0 +1,80 @@
+package com.booknest.etl.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Key-level queries over the source_db tables the extract reads: which rows changed since a checkpoint,
+ * and which keys exist at all. The records themselves are then fetched by id through the table's
+ * repository.
+ *
+ * <p>Changes are read from each table's stored {@code changed_at} column (COALESCE(ngay_cap_nhat,
+ * ngay_tao)) through its (changed_at, key) index, so a page is an index range read rather than a scan and
+ * sort of the whole table. Cart item edits reach {@code gio_hang.changed_at} through the triggers on
+ * chi_tiet_gio_hang, and author, category and role edits reach sach and nguoi_dung the same way.
+ *
+ * <p>{@code ON UPDATE CURRENT_TIMESTAMP} stamps a row when the statement runs, not when its transaction
+ * commits, so a long transaction can commit a row stamped before the checkpoint has already moved past
+ * it. Only rows stamped at least {@code commit-lag-seconds} ago are read; that must exceed the longest
+ * write transaction on source_db, or its changes can be missed.
+ */
+@Repository
+public class SourceChangeRepository {
+
+    public enum SourceTable {
+        BOOK("sach", "ma_sach"),
+        USER("nguoi_dung", "ma_nguoi_dung"),
+        CART("gio_hang", "ma_gio_hang"),
+        INVOICE("hoa_don", "ma_hoa_don");
+
+        private final String table;
+        private final String keyColumn;
+
+        SourceTable(String table, String keyColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+        }
+    }
+
+    @lombok.Value
+    public static class ChangedKey {
+        int key;
+        Timestamp changedAt;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int commitLagSeconds;
+
+    public SourceChangeRepository(JdbcTemplate sourceJdbcTemplate,
+                                  @Value("${etl.extract.incremental.commit-lag-seconds:60}") int commitLagSeconds) {
+        this.jdbcTemplate = sourceJdbcTemplate;
+        this.commitLagSeconds = commitLagSeconds;
+    }
+
+    /**
+     * Keys changed after ({@code changedAt}, {@code afterKey}) in (changed_at, key) order. Rows stamped in
+     * the last {@code commit-lag-seconds} are left for a later run, since transactions still open may yet
+     * commit rows with those timestamps.
+     */
+    public List<ChangedKey> findChangedKeys(SourceTable source, Timestamp changedAt, int afterKey, int limit) {
+        String sql = "SELECT " + source.keyColumn + " AS entity_key, changed_at"
+                + " FROM " + source.table
+                + " WHERE (changed_at, " + source.keyColumn + ") > (?, ?)"
+                + " AND changed_at < CURRENT_TIMESTAMP - INTERVAL ? SECOND"
+                + " ORDER BY changed_at, " + source.keyColumn
+                + " LIMIT ?";
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new ChangedKey(rs.getInt("entity_key"), rs.getTimestamp("changed_at")),
+                changedAt, afterKey, commitLagSeconds, limit);
+    }
+
+    public List<Integer> findKeys(SourceTable source, int afterKey, int limit) {
+        String sql = "SELECT " + source.keyColumn + " FROM " + source.table
+                + " WHERE " + source.keyColumn + " > ? ORDER BY " + source.keyColumn + " LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Integer.class, afterKey, limit);
+    }
+}
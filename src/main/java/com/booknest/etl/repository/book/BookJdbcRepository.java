@@ -3,14 +3,21 @@ package com.booknest.etl.repository.book;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import com.booknest.etl.dto.BookRawMessage;
+import com.booknest.etl.repository.KeysetPager;
 
 @Repository
 public class BookJdbcRepository {
@@ -34,15 +41,74 @@ public class BookJdbcRepository {
             LEFT JOIN the_loai tl ON tl.ma_the_loai = stl.ma_the_loai
             """;
 
+    private static final String BOOK_SELECT = """
+            SELECT ma_sach, ten_sach, mo_ta, gia_ban, mien_phi, ngay_phat_hanh, trang_thai, diem_trung_binh, luot_mua
+            FROM sach
+            """;
+
+    private static final String AUTHOR_LINKS_SELECT = """
+            SELECT DISTINCT stg.ma_sach, tg.ten_tac_gia AS name
+            FROM sach_tac_gia stg
+            JOIN tac_gia tg ON tg.ma_tac_gia = stg.ma_tac_gia
+            """;
+
+    private static final String CATEGORY_LINKS_SELECT = """
+            SELECT DISTINCT stl.ma_sach, tl.ten_the_loai AS name
+            FROM sach_the_loai stl
+            JOIN the_loai tl ON tl.ma_the_loai = stl.ma_the_loai
+            """;
+
+    /**
+     * GROUP_CONCAT joins authors and categories in one statement, so a book with 5 authors and 6
+     * categories becomes 30 rows before the server de-duplicates them. TWO_PHASE reads the page of books
+     * on its own and then its author and category links in one keyed query each, which is 5 + 6 rows.
+     */
+    public enum ExtractStrategy {
+        TWO_PHASE,
+        GROUP_CONCAT
+    }
+
     private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+    private final ExtractStrategy strategy;
 
-    public BookJdbcRepository(JdbcTemplate sourceJdbcTemplate) {
+    public BookJdbcRepository(JdbcTemplate sourceJdbcTemplate,
+                              @Value("${etl.extract.page-size:1000}") int pageSize,
+                              @Value("${etl.extract.book-strategy:TWO_PHASE}") ExtractStrategy strategy) {
         this.jdbcTemplate = sourceJdbcTemplate;
+        this.pageSize = pageSize;
+        this.strategy = strategy;
     }
 
     public List<BookRawMessage> findAllBooks() {
-        String sql = BASE_SELECT + " GROUP BY s.ma_sach";
-        return jdbcTemplate.query(sql, this::mapRowToBook);
+        try (Stream<BookRawMessage> books = streamAll()) {
+            return books.toList();
+        }
+    }
+
+    /**
+     * All books in id order, read one page of ids at a time.
+     */
+    public Stream<BookRawMessage> streamAll() {
+        return streamAll(strategy);
+    }
+
+    public Stream<BookRawMessage> streamAll(ExtractStrategy strategy) {
+        return KeysetPager.stream((afterId, limit) -> findPage(strategy, afterId, limit),
+                book -> Integer.parseInt(book.getBookId()), pageSize);
+    }
+
+    public List<BookRawMessage> findPage(int afterId, int limit) {
+        return findPage(strategy, afterId, limit);
+    }
+
+    public List<BookRawMessage> findPage(ExtractStrategy strategy, int afterId, int limit) {
+        if (strategy == ExtractStrategy.GROUP_CONCAT) {
+            String sql = BASE_SELECT + " WHERE s.ma_sach > ? GROUP BY s.ma_sach ORDER BY s.ma_sach LIMIT ?";
+            return jdbcTemplate.query(sql, this::mapRowToBook, afterId, limit);
+        }
+        return withLinks(jdbcTemplate.query(BOOK_SELECT + " WHERE ma_sach > ? ORDER BY ma_sach LIMIT ?",
+                (rs, rowNum) -> mapBookColumns(rs, rowNum).build(), afterId, limit));
     }
 
     public Optional<BookRawMessage> findById(String id) {
@@ -51,7 +117,81 @@ public class BookJdbcRepository {
         return list.stream().findFirst();
     }
 
+    public List<BookRawMessage> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String in = " IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        if (strategy == ExtractStrategy.GROUP_CONCAT) {
+            String sql = BASE_SELECT + " WHERE s.ma_sach" + in + " GROUP BY s.ma_sach ORDER BY s.ma_sach";
+            return jdbcTemplate.query(sql, this::mapRowToBook, ids.toArray());
+        }
+        return withLinks(jdbcTemplate.query(BOOK_SELECT + " WHERE ma_sach" + in + " ORDER BY ma_sach",
+                (rs, rowNum) -> mapBookColumns(rs, rowNum).build(), ids.toArray()));
+    }
+
+    /**
+     * Rows the GROUP_CONCAT query joins before grouping, against the link rows the two-phase reads fetch.
+     */
+    public long countJoinedRows() {
+        String sql = """
+                SELECT COUNT(*)
+                FROM sach s
+                LEFT JOIN sach_tac_gia stg ON stg.ma_sach = s.ma_sach
+                LEFT JOIN sach_the_loai stl ON stl.ma_sach = s.ma_sach
+                """;
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    public long countLinkRows() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM sach_tac_gia) + (SELECT COUNT(*) FROM sach_the_loai)", Long.class);
+    }
+
+    /**
+     * Second phase: fetches the authors and categories of the page's books with one keyed query each and
+     * attaches them in memory.
+     */
+    private List<BookRawMessage> withLinks(List<BookRawMessage> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        Object[] ids = books.stream().map(book -> Integer.valueOf(book.getBookId())).toArray();
+        String filter = " IN (" + String.join(", ", Collections.nCopies(ids.length, "?")) + ")";
+        Map<Integer, List<String>> authors = findLinks(AUTHOR_LINKS_SELECT + " WHERE stg.ma_sach" + filter
+                + " ORDER BY stg.ma_sach, name", ids);
+        Map<Integer, List<String>> categories = findLinks(CATEGORY_LINKS_SELECT + " WHERE stl.ma_sach" + filter
+                + " ORDER BY stl.ma_sach, name", ids);
+        List<BookRawMessage> result = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            Integer id = (Integer) ids[i];
+            result.add(books.get(i).toBuilder()
+                    .authors(authors.getOrDefault(id, List.of()))
+                    .categories(categories.getOrDefault(id, List.of()))
+                    .build());
+        }
+        return result;
+    }
+
+    private Map<Integer, List<String>> findLinks(String sql, Object[] ids) {
+        Map<Integer, List<String>> links = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String name = rs.getString("name");
+            if (name != null && !name.isBlank()) {
+                links.computeIfAbsent(rs.getInt("ma_sach"), key -> new ArrayList<>()).add(name.trim());
+            }
+        }, ids);
+        return links;
+    }
+
     private BookRawMessage mapRowToBook(ResultSet rs, int rowNum) throws SQLException {
+        return mapBookColumns(rs, rowNum)
+                .authors(split(rs.getString("authors")))
+                .categories(split(rs.getString("categories")))
+                .build();
+    }
+
+    private BookRawMessage.BookRawMessageBuilder mapBookColumns(ResultSet rs, int rowNum) throws SQLException {
         return BookRawMessage.builder()
                 .source("source_db")
                 .bookId(String.valueOf(rs.getInt("ma_sach")))
@@ -63,10 +203,7 @@ public class BookJdbcRepository {
                 .status(rs.getString("trang_thai"))
                 .averageRating(rs.getBigDecimal("diem_trung_binh"))
                 .totalOrders(rs.getObject("luot_mua") != null ? rs.getInt("luot_mua") : null)
-                .authors(split(rs.getString("authors")))
-                .categories(split(rs.getString("categories")))
-                .extractedAt(OffsetDateTime.now())
-                .build();
+                .extractedAt(OffsetDateTime.now());
     }
 
     private List<String> split(String raw) {
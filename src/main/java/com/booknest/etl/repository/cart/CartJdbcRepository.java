@@ -4,85 +4,141 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import com.booknest.etl.dto.CartItemRawMessage;
 import com.booknest.etl.dto.CartRawMessage;
+import com.booknest.etl.repository.KeysetPager;
 
 @Repository
 public class CartJdbcRepository {
 
+    // The page of carts is cut before joining, so LIMIT counts carts rather than item rows.
+    private static final String CART_PAGE_SELECT = """
+            SELECT gh.ma_gio_hang,
+                   gh.ma_nguoi_dung,
+                   gh.ngay_tao,
+                   cth.ma_sach,
+                   cth.so_luong,
+                   cth.gia_ban
+            FROM (SELECT ma_gio_hang, ma_nguoi_dung, ngay_tao
+                  FROM gio_hang
+                  WHERE ma_gio_hang > ?
+                  ORDER BY ma_gio_hang
+                  LIMIT ?) gh
+            LEFT JOIN chi_tiet_gio_hang cth ON cth.ma_gio_hang = gh.ma_gio_hang
+            ORDER BY gh.ma_gio_hang
+            """;
+
+    private static final String CART_SELECT = """
+            SELECT gh.ma_gio_hang,
+                   gh.ma_nguoi_dung,
+                   gh.ngay_tao,
+                   cth.ma_sach,
+                   cth.so_luong,
+                   cth.gia_ban
+            FROM gio_hang gh
+            LEFT JOIN chi_tiet_gio_hang cth ON cth.ma_gio_hang = gh.ma_gio_hang
+            """;
+
     private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
 
-    public CartJdbcRepository(JdbcTemplate sourceJdbcTemplate) {
+    public CartJdbcRepository(JdbcTemplate sourceJdbcTemplate,
+                              @Value("${etl.extract.page-size:1000}") int pageSize) {
         this.jdbcTemplate = sourceJdbcTemplate;
+        this.pageSize = pageSize;
     }
 
     public List<CartRawMessage> findAll() {
-        String sql = """
-                SELECT gh.ma_gio_hang,
-                       gh.ma_nguoi_dung,
-                       gh.ngay_tao,
-                       cth.ma_sach,
-                       cth.so_luong,
-                       cth.gia_ban
-                FROM gio_hang gh
-                LEFT JOIN chi_tiet_gio_hang cth ON cth.ma_gio_hang = gh.ma_gio_hang
-                """;
-        Map<Integer, CartRawMessage.CartRawMessageBuilder> carts = new HashMap<>();
-        Map<Integer, List<CartItemRawMessage>> cartItems = new HashMap<>();
-        jdbcTemplate.query(sql, rs -> {
-            while (rs.next()) {
-                processRow(rs, carts, cartItems);
-            }
-            return null;
-        });
-        List<CartRawMessage> result = new ArrayList<>();
-        carts.forEach((id, builder) -> result.add(builder
-                .items(cartItems.getOrDefault(id, List.of()))
-                .build()));
-        return result;
+        try (Stream<CartRawMessage> carts = streamAll()) {
+            return carts.toList();
+        }
+    }
+
+    /**
+     * All carts in id order with their items, fetched {@code pageSize} carts at a time.
+     */
+    public Stream<CartRawMessage> streamAll() {
+        return KeysetPager.stream(this::findPage, cart -> Integer.parseInt(cart.getCartId()), pageSize);
+    }
+
+    public List<CartRawMessage> findPage(int afterId, int limit) {
+        return assemble(jdbcTemplate.query(CART_PAGE_SELECT, this::mapCartRow, afterId, limit));
     }
 
     public Optional<CartRawMessage> findById(String id) {
-        return findAll().stream()
-                .filter(cart -> cart.getCartId().equals(id))
-                .findFirst();
+        return assemble(jdbcTemplate.query(CART_SELECT + " WHERE gh.ma_gio_hang = ?", this::mapCartRow, id)).stream().findFirst();
     }
 
-    private void processRow(ResultSet rs,
-                            Map<Integer, CartRawMessage.CartRawMessageBuilder> carts,
-                            Map<Integer, List<CartItemRawMessage>> cartItems) {
-        try {
-            int cartId = rs.getInt("ma_gio_hang");
-            String customerId = String.valueOf(rs.getInt("ma_nguoi_dung"));
-            OffsetDateTime createdAt = rs.getTimestamp("ngay_tao") != null
-                    ? rs.getTimestamp("ngay_tao").toInstant().atOffset(OffsetDateTime.now().getOffset())
-                    : null;
-
-            carts.computeIfAbsent(cartId, id -> CartRawMessage.builder()
-                    .cartId(String.valueOf(id))
-                    .customerId(customerId)
-                    .createdAt(createdAt)
-                    .source("source_db")
-                    .extractedAt(OffsetDateTime.now()));
-
-            if (rs.getObject("ma_sach") != null) {
-                CartItemRawMessage item = CartItemRawMessage.builder()
-                        .bookId(String.valueOf(rs.getInt("ma_sach")))
-                        .quantity(rs.getInt("so_luong"))
-                        .unitPrice(rs.getBigDecimal("gia_ban"))
-                        .build();
-                cartItems.computeIfAbsent(cartId, key -> new ArrayList<>()).add(item);
+    public List<CartRawMessage> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = CART_SELECT + " WHERE gh.ma_gio_hang IN (" + String.join(", ", Collections.nCopies(ids.size(), "?"))
+                + ") ORDER BY gh.ma_gio_hang";
+        return assemble(jdbcTemplate.query(sql, this::mapCartRow, ids.toArray()));
+    }
+
+    /**
+     * Folds joined rows ordered by cart id into one message per cart.
+     */
+    private List<CartRawMessage> assemble(List<CartRow> rows) {
+        List<CartRawMessage> carts = new ArrayList<>();
+        int index = 0;
+        while (index < rows.size()) {
+            CartRow first = rows.get(index);
+            List<CartItemRawMessage> items = new ArrayList<>();
+            while (index < rows.size() && rows.get(index).cartId == first.cartId) {
+                if (rows.get(index).item != null) {
+                    items.add(rows.get(index).item);
+                }
+                index++;
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Cannot map cart row", e);
+            carts.add(CartRawMessage.builder()
+                    .cartId(String.valueOf(first.cartId))
+                    .customerId(first.customerId)
+                    .createdAt(first.createdAt)
+                    .source("source_db")
+                    .items(items)
+                    .extractedAt(OffsetDateTime.now())
+                    .build());
         }
+        return carts;
+    }
+
+    private static final class CartRow {
+        final int cartId;
+        final String customerId;
+        final OffsetDateTime createdAt;
+        final CartItemRawMessage item;
+
+        CartRow(int cartId, String customerId, OffsetDateTime createdAt, CartItemRawMessage item) {
+            this.cartId = cartId;
+            this.customerId = customerId;
+            this.createdAt = createdAt;
+            this.item = item;
+        }
+    }
+
+    private CartRow mapCartRow(ResultSet rs, int rowNum) throws SQLException {
+        CartItemRawMessage item = rs.getObject("ma_sach") == null ? null : CartItemRawMessage.builder()
+                .bookId(String.valueOf(rs.getInt("ma_sach")))
+                .quantity(rs.getInt("so_luong"))
+                .unitPrice(rs.getBigDecimal("gia_ban"))
+                .build();
+        return new CartRow(rs.getInt("ma_gio_hang"),
+                String.valueOf(rs.getInt("ma_nguoi_dung")),
+                rs.getTimestamp("ngay_tao") != null
+                        ? rs.getTimestamp("ngay_tao").toInstant().atOffset(OffsetDateTime.now().getOffset())
+                        : null,
+                item);
     }
 }
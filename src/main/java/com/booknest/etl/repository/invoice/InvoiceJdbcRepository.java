@@ -3,28 +3,51 @@ package com.booknest.etl.repository.invoice;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import com.booknest.etl.dto.InvoiceRawMessage;
+import com.booknest.etl.repository.KeysetPager;
 
 @Repository
 public class InvoiceJdbcRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
 
-    public InvoiceJdbcRepository(JdbcTemplate sourceJdbcTemplate) {
+    public InvoiceJdbcRepository(JdbcTemplate sourceJdbcTemplate,
+                                 @Value("${etl.extract.page-size:1000}") int pageSize) {
         this.jdbcTemplate = sourceJdbcTemplate;
+        this.pageSize = pageSize;
     }
 
     public List<InvoiceRawMessage> findAll() {
+        try (Stream<InvoiceRawMessage> invoices = streamAll()) {
+            return invoices.toList();
+        }
+    }
+
+    /**
+     * All invoices in id order, one page at a time.
+     */
+    public Stream<InvoiceRawMessage> streamAll() {
+        return KeysetPager.stream(this::findPage, invoice -> Integer.parseInt(invoice.getInvoiceId()), pageSize);
+    }
+
+    public List<InvoiceRawMessage> findPage(int afterId, int limit) {
         String sql = """
                 SELECT * FROM hoa_don
+                WHERE ma_hoa_don > ?
+                ORDER BY ma_hoa_don
+                LIMIT ?
                 """;
-        return jdbcTemplate.query(sql, this::mapRow);
+        return jdbcTemplate.query(sql, this::mapRow, afterId, limit);
     }
 
     public Optional<InvoiceRawMessage> findById(String id) {
@@ -32,6 +55,15 @@ public class InvoiceJdbcRepository {
                 .stream().findFirst();
     }
 
+    public List<InvoiceRawMessage> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT * FROM hoa_don WHERE ma_hoa_don IN (" + String.join(", ", Collections.nCopies(ids.size(), "?"))
+                + ") ORDER BY ma_hoa_don";
+        return jdbcTemplate.query(sql, this::mapRow, ids.toArray());
+    }
+
     private InvoiceRawMessage mapRow(ResultSet rs, int rowNum) throws SQLException {
         return InvoiceRawMessage.builder()
                 .invoiceId(String.valueOf(rs.getInt("ma_hoa_don")))
@@ -0,0 +1,133 @@
+package com.booknest.etl.repository.staging;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.booknest.etl.dto.ExtractCheckpoint;
+
+@Repository
+public class ExtractCheckpointRepository {
+
+    private static final Timestamp EPOCH = new Timestamp(0);
+    private static final int SNAPSHOT_BATCH_SIZE = 5000;
+
+    private static final RowMapper<ExtractCheckpoint> ROW_MAPPER = (rs, rowNum) -> ExtractCheckpoint.builder()
+            .entity(rs.getString("entity"))
+            .lastChangedAt(rs.getTimestamp("last_changed_at"))
+            .lastKey(rs.getInt("last_key"))
+            .lastKeyScanAt(rs.getTimestamp("last_key_scan_at"))
+            .updatedAt(rs.getTimestamp("updated_at"))
+            .build();
+
+    private final JdbcTemplate stagingJdbcTemplate;
+
+    public ExtractCheckpointRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
+        this.stagingJdbcTemplate = stagingJdbcTemplate;
+    }
+
+    /**
+     * Returns the last (changed_at, key) pair published for the table, or the epoch when it has never
+     * been extracted incrementally.
+     */
+    public ExtractCheckpoint find(String entity) {
+        List<ExtractCheckpoint> rows = stagingJdbcTemplate.query(
+                "SELECT entity, last_changed_at, last_key, last_key_scan_at, updated_at "
+                        + "FROM staging_db.etl_extract_checkpoint WHERE entity = ?",
+                ROW_MAPPER, entity);
+        if (rows.isEmpty()) {
+            return ExtractCheckpoint.builder().entity(entity).lastChangedAt(EPOCH).lastKey(0).build();
+        }
+        ExtractCheckpoint checkpoint = rows.get(0);
+        if (checkpoint.getLastChangedAt() == null) {
+            // Only key-scanned so far.
+            return ExtractCheckpoint.builder()
+                    .entity(entity)
+                    .lastChangedAt(EPOCH)
+                    .lastKey(0)
+                    .lastKeyScanAt(checkpoint.getLastKeyScanAt())
+                    .build();
+        }
+        return checkpoint;
+    }
+
+    public List<ExtractCheckpoint> findAll() {
+        return stagingJdbcTemplate.query(
+                "SELECT entity, last_changed_at, last_key, last_key_scan_at, updated_at "
+                        + "FROM staging_db.etl_extract_checkpoint ORDER BY entity",
+                ROW_MAPPER);
+    }
+
+    public void advance(String entity, Timestamp lastChangedAt, int lastKey) {
+        String sql = """
+                INSERT INTO staging_db.etl_extract_checkpoint (entity, last_changed_at, last_key)
+                VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    last_changed_at = VALUES(last_changed_at),
+                    last_key = VALUES(last_key)
+                """;
+        stagingJdbcTemplate.update(sql, entity, lastChangedAt, lastKey);
+    }
+
+    public BitSet findKeySnapshot(String entity) {
+        BitSet keys = new BitSet();
+        stagingJdbcTemplate.query("SELECT entity_key FROM staging_db.etl_extract_key_snapshot WHERE entity = ?",
+                rs -> {
+                    keys.set(rs.getInt(1));
+                }, entity);
+        return keys;
+    }
+
+    /**
+     * Records the keys that disappeared since the previous scan, replaces the key snapshot and stamps the
+     * scan time. A snapshot left half-written by a crash can only hide deletes, never report false ones,
+     * since deletes are keys of the old snapshot missing from the source.
+     */
+    public void saveKeyScan(String entity, BitSet keys, List<Integer> deleted, Timestamp scannedAt) {
+        if (!deleted.isEmpty()) {
+            stagingJdbcTemplate.batchUpdate("""
+                    INSERT INTO staging_db.etl_extract_deletion (entity, entity_key, detected_at)
+                    VALUES (?, ?, ?)
+                    ON DUPLICATE KEY UPDATE detected_at = VALUES(detected_at)
+                    """, deleted.stream().map(key -> new Object[] {entity, key, scannedAt}).toList());
+        }
+        stagingJdbcTemplate.update("DELETE FROM staging_db.etl_extract_key_snapshot WHERE entity = ?", entity);
+        List<Object[]> batch = new ArrayList<>(SNAPSHOT_BATCH_SIZE);
+        for (int key = keys.nextSetBit(0); key >= 0; key = keys.nextSetBit(key + 1)) {
+            batch.add(new Object[] {entity, key});
+            if (batch.size() == SNAPSHOT_BATCH_SIZE) {
+                insertSnapshot(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertSnapshot(batch);
+        }
+        stagingJdbcTemplate.update("""
+                INSERT INTO staging_db.etl_extract_checkpoint (entity, last_key_scan_at)
+                VALUES (?, ?)
+                ON DUPLICATE KEY UPDATE last_key_scan_at = VALUES(last_key_scan_at)
+                """, entity, scannedAt);
+    }
+
+    private void insertSnapshot(List<Object[]> batch) {
+        stagingJdbcTemplate.batchUpdate(
+                "INSERT INTO staging_db.etl_extract_key_snapshot (entity, entity_key) VALUES (?, ?)", batch);
+    }
+
+    public int reset(String entity) {
+        stagingJdbcTemplate.update("DELETE FROM staging_db.etl_extract_key_snapshot WHERE entity = ?", entity);
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_extract_checkpoint WHERE entity = ?", entity);
+    }
+
+    public int resetAll() {
+        stagingJdbcTemplate.update("DELETE FROM staging_db.etl_extract_key_snapshot");
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_extract_checkpoint");
+    }
+}
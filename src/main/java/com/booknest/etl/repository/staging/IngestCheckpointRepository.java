@@ -0,0 +1,71 @@
+package com.booknest.etl.repository.staging;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.booknest.etl.dto.IngestCheckpoint;
+
+@Repository
+public class IngestCheckpointRepository {
+
+    private static final RowMapper<IngestCheckpoint> ROW_MAPPER = (rs, rowNum) -> IngestCheckpoint.builder()
+            .fileName(rs.getString("file_name"))
+            .fileKey(rs.getString("file_key"))
+            .byteOffset(rs.getLong("byte_offset"))
+            .nextLine(rs.getLong("next_line"))
+            .rowsPublished(rs.getLong("rows_published"))
+            .updatedAt(rs.getTimestamp("updated_at"))
+            .build();
+
+    private final JdbcTemplate stagingJdbcTemplate;
+
+    public IngestCheckpointRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
+        this.stagingJdbcTemplate = stagingJdbcTemplate;
+    }
+
+    /**
+     * Returns how far the file has been published, or offset 0 when it has never been seen.
+     */
+    public IngestCheckpoint find(String fileName) {
+        List<IngestCheckpoint> rows = stagingJdbcTemplate.query(
+                "SELECT file_name, file_key, byte_offset, next_line, rows_published, updated_at "
+                        + "FROM staging_db.etl_ingest_checkpoint WHERE file_name = ?",
+                ROW_MAPPER, fileName);
+        if (rows.isEmpty()) {
+            return IngestCheckpoint.builder().fileName(fileName).byteOffset(0).nextLine(1).rowsPublished(0).build();
+        }
+        return rows.get(0);
+    }
+
+    public List<IngestCheckpoint> findAll() {
+        return stagingJdbcTemplate.query(
+                "SELECT file_name, file_key, byte_offset, next_line, rows_published, updated_at "
+                        + "FROM staging_db.etl_ingest_checkpoint ORDER BY file_name",
+                ROW_MAPPER);
+    }
+
+    public void save(String fileName, String fileKey, long byteOffset, long nextLine, long rowsPublished) {
+        String sql = """
+                INSERT INTO staging_db.etl_ingest_checkpoint (file_name, file_key, byte_offset, next_line, rows_published)
+                VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    file_key = VALUES(file_key),
+                    byte_offset = VALUES(byte_offset),
+                    next_line = VALUES(next_line),
+                    rows_published = VALUES(rows_published)
+                """;
+        stagingJdbcTemplate.update(sql, fileName, fileKey, byteOffset, nextLine, rowsPublished);
+    }
+
+    public int reset(String fileName) {
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_ingest_checkpoint WHERE file_name = ?", fileName);
+    }
+
+    public int resetAll() {
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_ingest_checkpoint");
+    }
+}
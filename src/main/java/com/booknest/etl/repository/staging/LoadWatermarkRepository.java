@@ -0,0 +1,70 @@
+package com.booknest.etl.repository.staging;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import com.booknest.etl.dto.LoadWatermark;
+
+@Repository
+public class LoadWatermarkRepository {
+
+    private static final Timestamp EPOCH = new Timestamp(0);
+
+    private final JdbcTemplate stagingJdbcTemplate;
+
+    public LoadWatermarkRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
+        this.stagingJdbcTemplate = stagingJdbcTemplate;
+    }
+
+    /**
+     * Returns the last (loaded_at, key) pair committed to source_db, or the epoch when the entity has
+     * never been loaded.
+     */
+    public LoadWatermark find(String entity) {
+        List<LoadWatermark> rows = stagingJdbcTemplate.query(
+                "SELECT entity, last_loaded_at, last_key FROM staging_db.etl_load_watermark WHERE entity = ?",
+                (rs, rowNum) -> LoadWatermark.builder()
+                        .entity(rs.getString("entity"))
+                        .lastLoadedAt(rs.getTimestamp("last_loaded_at"))
+                        .lastKey(rs.getString("last_key"))
+                        .build(),
+                entity);
+        if (rows.isEmpty() || rows.get(0).getLastLoadedAt() == null) {
+            return LoadWatermark.builder().entity(entity).lastLoadedAt(EPOCH).lastKey("").build();
+        }
+        return rows.get(0);
+    }
+
+    public List<LoadWatermark> findAll() {
+        return stagingJdbcTemplate.query(
+                "SELECT entity, last_loaded_at, last_key FROM staging_db.etl_load_watermark ORDER BY entity",
+                (rs, rowNum) -> LoadWatermark.builder()
+                        .entity(rs.getString("entity"))
+                        .lastLoadedAt(rs.getTimestamp("last_loaded_at"))
+                        .lastKey(rs.getString("last_key"))
+                        .build());
+    }
+
+    public void advance(String entity, Timestamp lastLoadedAt, String lastKey) {
+        String sql = """
+                INSERT INTO staging_db.etl_load_watermark (entity, last_loaded_at, last_key)
+                VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    last_loaded_at = VALUES(last_loaded_at),
+                    last_key = VALUES(last_key)
+                """;
+        stagingJdbcTemplate.update(sql, entity, lastLoadedAt, lastKey);
+    }
+
+    public int reset(String entity) {
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_load_watermark WHERE entity = ?", entity);
+    }
+
+    public int resetAll() {
+        return stagingJdbcTemplate.update("DELETE FROM staging_db.etl_load_watermark");
+    }
+}
@@ -1,6 +1,7 @@
 package com.booknest.etl.repository.staging;
 
 import java.sql.Types;
+import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,34 @@ import com.booknest.etl.dq.DataQualityStatus;
 @Repository
 public class StagingBookRepository {
 
+    private static final String UPSERT_SQL = """
+            INSERT INTO staging_db.stg_books (book_key, title, authors, categories, description, price, free_flag,
+                                   released_at, avg_rating, total_orders, quality_status, quality_errors, source, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                title = VALUES(title),
+                authors = VALUES(authors),
+                categories = VALUES(categories),
+                description = VALUES(description),
+                price = VALUES(price),
+                free_flag = VALUES(free_flag),
+                released_at = VALUES(released_at),
+                avg_rating = VALUES(avg_rating),
+                total_orders = VALUES(total_orders),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                source = VALUES(source),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.LONGVARCHAR, Types.DECIMAL, Types.BOOLEAN, Types.DATE,
+            Types.DECIMAL, Types.INTEGER, Types.VARCHAR, Types.LONGVARCHAR,
+            Types.VARCHAR, Types.VARCHAR
+    };
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingBookRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -19,26 +48,28 @@ public class StagingBookRepository {
     }
 
     public void upsert(BookRawMessage message, DataQualityStatus qualityStatus, String qualityErrors) {
-        String sql = """
-                INSERT INTO staging_db.stg_books (book_key, title, authors, categories, description, price, free_flag,
-                                       released_at, avg_rating, total_orders, quality_status, quality_errors, source, loaded_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    title = VALUES(title),
-                    authors = VALUES(authors),
-                    categories = VALUES(categories),
-                    description = VALUES(description),
-                    price = VALUES(price),
-                    free_flag = VALUES(free_flag),
-                    released_at = VALUES(released_at),
-                    avg_rating = VALUES(avg_rating),
-                    total_orders = VALUES(total_orders),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    source = VALUES(source),
-                    loaded_at = NOW()
-                """;
-        Object[] params = {
+        upsert(message, qualityStatus, qualityErrors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(BookRawMessage message, DataQualityStatus qualityStatus, String qualityErrors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(message, qualityStatus, qualityErrors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<BookRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
+
+    private Object[] upsertParams(BookRawMessage message, DataQualityStatus qualityStatus, String qualityErrors,
+                                  String contentHash) {
+        return new Object[]{
                 message.getBookId(),
                 message.getTitle(),
                 String.join(", ", message.getAuthors()),
@@ -51,14 +82,8 @@ public class StagingBookRepository {
                 message.getTotalOrders(),
                 qualityStatus != null ? qualityStatus.value() : null,
                 qualityErrors,
-                message.getSource()
-        };
-        int[] types = {
-                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-                Types.LONGVARCHAR, Types.DECIMAL, Types.BOOLEAN, Types.DATE,
-                Types.DECIMAL, Types.INTEGER, Types.VARCHAR, Types.LONGVARCHAR,
-                Types.VARCHAR
+                message.getSource(),
+                contentHash
         };
-        stagingJdbcTemplate.update(sql, params, types);
     }
 }
@@ -1,6 +1,7 @@
 package com.booknest.etl.repository.staging;
 
 import java.sql.Types;
+import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,20 @@ import com.booknest.etl.dq.DataQualityStatus;
 @Repository
 public class StagingCartRepository {
 
+    private static final String UPSERT_SQL = """
+            INSERT INTO staging_db.stg_carts (cart_key, customer_key, created_at, quality_status, quality_errors, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                customer_key = VALUES(customer_key),
+                created_at = VALUES(created_at),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR, Types.VARCHAR};
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingCartRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -19,22 +34,33 @@ public class StagingCartRepository {
     }
 
     public void upsert(CartRawMessage cart, DataQualityStatus status, String errors) {
-        String sql = """
-                INSERT INTO staging_db.stg_carts (cart_key, customer_key, created_at, quality_status, quality_errors, loaded_at)
-                VALUES (?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    customer_key = VALUES(customer_key),
-                    created_at = VALUES(created_at),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    loaded_at = NOW()
-                """;
-        stagingJdbcTemplate.update(sql, new Object[]{
+        upsert(cart, status, errors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(CartRawMessage cart, DataQualityStatus status, String errors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(cart, status, errors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<CartRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
+
+    private Object[] upsertParams(CartRawMessage cart, DataQualityStatus status, String errors, String contentHash) {
+        return new Object[]{
                 cart.getCartId(),
                 cart.getCustomerId(),
                 cart.getCreatedAt(),
                 status != null ? status.value() : null,
-                errors
-        }, new int[]{Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR});
+                errors,
+                contentHash
+        };
     }
 }
@@ -1,6 +1,7 @@
 package com.booknest.etl.repository.staging;
 
 import java.sql.Types;
+import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,23 @@ import com.booknest.etl.dq.DataQualityStatus;
 @Repository
 public class StagingInvoiceRepository {
 
+    private static final String UPSERT_SQL = """
+            INSERT INTO staging_db.stg_invoices (invoice_key, order_key, amount, status, issued_at, due_at, quality_status, quality_errors, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                order_key = VALUES(order_key),
+                amount = VALUES(amount),
+                status = VALUES(status),
+                issued_at = VALUES(issued_at),
+                due_at = VALUES(due_at),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR, Types.VARCHAR};
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingInvoiceRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -19,20 +37,27 @@ public class StagingInvoiceRepository {
     }
 
     public void upsert(InvoiceRawMessage invoice, DataQualityStatus status, String errors) {
-        String sql = """
-                INSERT INTO staging_db.stg_invoices (invoice_key, order_key, amount, status, issued_at, due_at, quality_status, quality_errors, loaded_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    order_key = VALUES(order_key),
-                    amount = VALUES(amount),
-                    status = VALUES(status),
-                    issued_at = VALUES(issued_at),
-                    due_at = VALUES(due_at),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    loaded_at = NOW()
-                """;
-        stagingJdbcTemplate.update(sql, new Object[]{
+        upsert(invoice, status, errors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(InvoiceRawMessage invoice, DataQualityStatus status, String errors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(invoice, status, errors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<InvoiceRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
+
+    private Object[] upsertParams(InvoiceRawMessage invoice, DataQualityStatus status, String errors, String contentHash) {
+        return new Object[]{
                 invoice.getInvoiceId(),
                 invoice.getOrderId(),
                 invoice.getAmount(),
@@ -40,7 +65,8 @@ public class StagingInvoiceRepository {
                 invoice.getIssuedAt(),
                 invoice.getDueAt(),
                 status != null ? status.value() : null,
-                errors
-        }, new int[]{Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR});
+                errors,
+                contentHash
+        };
     }
 }
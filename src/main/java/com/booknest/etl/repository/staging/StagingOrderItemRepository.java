@@ -13,6 +13,25 @@ import com.booknest.etl.dq.DataQualityStatus;
 @Repository
 public class StagingOrderItemRepository {
 
+    private static final String UPSERT_SQL = """
+            INSERT INTO staging_db.stg_order_items 
+            (order_key, book_key, quantity, unit_price, quality_status, quality_errors, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                quantity = VALUES(quantity),
+                unit_price = VALUES(unit_price),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL,
+            Types.VARCHAR, Types.LONGVARCHAR,
+            Types.VARCHAR
+    };
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingOrderItemRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -20,31 +39,39 @@ public class StagingOrderItemRepository {
     }
 
     public void upsert(OrderItemRawMessage item, DataQualityStatus status, String errors) {
-        String sql = """
-                INSERT INTO staging_db.stg_order_items 
-                (order_key, book_key, quantity, unit_price, quality_status, quality_errors, loaded_at)
-                VALUES (?, ?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    quantity = VALUES(quantity),
-                    unit_price = VALUES(unit_price),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    loaded_at = NOW()
-                """;
-        
-        String orderKey = "ORDER_" + (item.getBookId() != null ? item.getBookId() : "UNKNOWN");
-        
-        stagingJdbcTemplate.update(sql, new Object[]{
-                orderKey,
+        upsert(item, status, errors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(OrderItemRawMessage item, DataQualityStatus status, String errors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(item, status, errors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<OrderItemRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
+
+    private Object[] upsertParams(OrderItemRawMessage item, DataQualityStatus status, String errors, String contentHash) {
+        return new Object[]{
+                orderKeyOf(item),
                 item.getBookId(),
                 item.getQuantity(),
                 item.getUnitPrice(),
                 status.value(),
-                errors
-        }, new int[]{
-                Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL,
-                Types.VARCHAR, Types.LONGVARCHAR
-        });
+                errors,
+                contentHash
+        };
+    }
+
+    public static String orderKeyOf(OrderItemRawMessage item) {
+        return "ORDER_" + (item.getBookId() != null ? item.getBookId() : "UNKNOWN");
     }
 
     public void replaceItems(String orderKey, List<OrderItemRawMessage> items) {
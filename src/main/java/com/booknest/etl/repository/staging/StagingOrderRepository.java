@@ -2,6 +2,7 @@ package com.booknest.etl.repository.staging;
 
 import java.sql.Types;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -13,6 +14,40 @@ import com.booknest.etl.dq.DataQualityStatus;
 @Repository
 public class StagingOrderRepository {
 
+    private static final String UPSERT_SQL = """
+        INSERT INTO staging_db.stg_orders (order_key, customer_key, status, payment_method,
+                                    subtotal, discount, shipping_fee, total_amount,
+                                    payment_ref, receiver_name, receiver_phone, receiver_address,
+                                    order_date, updated_at, quality_status, quality_errors, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                customer_key = VALUES(customer_key),
+                status = VALUES(status),
+                payment_method = VALUES(payment_method),
+                subtotal = VALUES(subtotal),
+                discount = VALUES(discount),
+                shipping_fee = VALUES(shipping_fee),
+                total_amount = VALUES(total_amount),
+                payment_ref = VALUES(payment_ref),
+                receiver_name = VALUES(receiver_name),
+                receiver_phone = VALUES(receiver_phone),
+                receiver_address = VALUES(receiver_address),
+                order_date = VALUES(order_date),
+                updated_at = VALUES(updated_at),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR,
+            Types.VARCHAR
+    };
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingOrderRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -20,32 +55,27 @@ public class StagingOrderRepository {
     }
 
     public void upsert(OrderRawMessage order, DataQualityStatus qualityStatus, String errors) {
-        String sql = """
-            INSERT INTO staging_db.stg_orders (order_key, customer_key, status, payment_method,
-                                        subtotal, discount, shipping_fee, total_amount,
-                                        payment_ref, receiver_name, receiver_phone, receiver_address,
-                                        order_date, updated_at, quality_status, quality_errors, loaded_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    customer_key = VALUES(customer_key),
-                    status = VALUES(status),
-                    payment_method = VALUES(payment_method),
-                    subtotal = VALUES(subtotal),
-                    discount = VALUES(discount),
-                    shipping_fee = VALUES(shipping_fee),
-                    total_amount = VALUES(total_amount),
-                    payment_ref = VALUES(payment_ref),
-                    receiver_name = VALUES(receiver_name),
-                    receiver_phone = VALUES(receiver_phone),
-                    receiver_address = VALUES(receiver_address),
-                    order_date = VALUES(order_date),
-                    updated_at = VALUES(updated_at),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    loaded_at = NOW()
-                """;
+        upsert(order, qualityStatus, errors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(OrderRawMessage order, DataQualityStatus qualityStatus, String errors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(order, qualityStatus, errors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<OrderRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
 
-                stagingJdbcTemplate.update(sql, new Object[]{
+    private Object[] upsertParams(OrderRawMessage order, DataQualityStatus qualityStatus, String errors, String contentHash) {
+        return new Object[]{
                 order.getOrderId(),
                 order.getCustomerEmail(),
                 order.getStatus(),
@@ -61,13 +91,9 @@ public class StagingOrderRepository {
                 order.getCreatedAt(),
                 order.getExtractedAt(),
                 qualityStatus != null ? qualityStatus.value() : null,
-                errors
-        }, new int[]{
-                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-                Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL,
-                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-                Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.LONGVARCHAR
-        });
+                errors,
+                contentHash
+        };
     }
 
     private java.math.BigDecimal orderSubtotal(OrderRawMessage order) {
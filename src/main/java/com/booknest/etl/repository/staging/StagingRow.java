@@ -0,0 +1,34 @@
+package com.booknest.etl.repository.staging;
+
+import java.util.List;
+
+import com.booknest.etl.dq.DataQualityStatus;
+import com.booknest.etl.dto.DqErrorDto;
+
+import lombok.Value;
+
+/**
+ * A validated record with the staging columns written alongside it, for the batched {@code upsertAll}
+ * of the staging repositories.
+ */
+@Value
+public class StagingRow<T> {
+
+    T record;
+    DataQualityStatus status;
+    String errors;
+    String contentHash;
+
+    /**
+     * VALIDATED when there are no errors, REJECTED with the errors otherwise.
+     */
+    public static <T> StagingRow<T> of(T record, List<DqErrorDto> errors, String contentHash) {
+        return errors.isEmpty()
+                ? new StagingRow<>(record, DataQualityStatus.VALIDATED, null, contentHash)
+                : new StagingRow<>(record, DataQualityStatus.REJECTED, errors.toString(), contentHash);
+    }
+
+    public boolean isValidated() {
+        return status == DataQualityStatus.VALIDATED;
+    }
+}
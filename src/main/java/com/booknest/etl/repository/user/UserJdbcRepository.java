@@ -4,13 +4,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import com.booknest.etl.dto.UserRawMessage;
+import com.booknest.etl.repository.KeysetPager;
 
 @Repository
 public class UserJdbcRepository {
@@ -28,14 +32,30 @@ public class UserJdbcRepository {
             """;
 
     private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
 
-    public UserJdbcRepository(JdbcTemplate sourceJdbcTemplate) {
+    public UserJdbcRepository(JdbcTemplate sourceJdbcTemplate,
+                              @Value("${etl.extract.page-size:1000}") int pageSize) {
         this.jdbcTemplate = sourceJdbcTemplate;
+        this.pageSize = pageSize;
     }
 
     public List<UserRawMessage> findAllUsers() {
-        String sql = BASE_SELECT + " GROUP BY nd.ma_nguoi_dung";
-        return jdbcTemplate.query(sql, this::mapRowToUser);
+        try (Stream<UserRawMessage> users = streamAll()) {
+            return users.toList();
+        }
+    }
+
+    /**
+     * All users in id order, aggregated one page of ids at a time.
+     */
+    public Stream<UserRawMessage> streamAll() {
+        return KeysetPager.stream(this::findPage, user -> Integer.parseInt(user.getUserId()), pageSize);
+    }
+
+    public List<UserRawMessage> findPage(int afterId, int limit) {
+        String sql = BASE_SELECT + " WHERE nd.ma_nguoi_dung > ? GROUP BY nd.ma_nguoi_dung ORDER BY nd.ma_nguoi_dung LIMIT ?";
+        return jdbcTemplate.query(sql, this::mapRowToUser, afterId, limit);
     }
 
     public Optional<UserRawMessage> findById(String id) {
@@ -43,6 +63,15 @@ public class UserJdbcRepository {
         return jdbcTemplate.query(sql, this::mapRowToUser, id).stream().findFirst();
     }
 
+    public List<UserRawMessage> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = BASE_SELECT + " WHERE nd.ma_nguoi_dung IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")"
+                + " GROUP BY nd.ma_nguoi_dung ORDER BY nd.ma_nguoi_dung";
+        return jdbcTemplate.query(sql, this::mapRowToUser, ids.toArray());
+    }
+
     private UserRawMessage mapRowToUser(ResultSet rs, int rowNum) throws SQLException {
         return UserRawMessage.builder()
                 .source("source_db")
@@ -1,21 +1,23 @@
 package com.booknest.etl.service.extract;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
@@ -29,10 +31,12 @@ import com.booknest.etl.dto.OrderRawMessage;
 import com.booknest.etl.dto.UserRawMessage;
 import com.booknest.etl.messaging.producer.BookMessageProducer;
 import com.booknest.etl.messaging.producer.CartMessageProducer;
+import com.booknest.etl.messaging.producer.ConfirmingPublisher;
 import com.booknest.etl.messaging.producer.CustomerMessageProducer;
 import com.booknest.etl.messaging.producer.InvoiceMessageProducer;
 import com.booknest.etl.messaging.producer.OrderItemMessageProducer;
 import com.booknest.etl.messaging.producer.OrderMessageProducer;
+import com.booknest.etl.messaging.producer.RawBatchPublisher;
 
 import lombok.RequiredArgsConstructor;
 
@@ -49,328 +53,380 @@ public class BatchCsvExtractService {
     private final OrderItemMessageProducer orderItemProducer;
     private final CartMessageProducer cartProducer;
     private final InvoiceMessageProducer invoiceProducer;
+    private final OrderItemJoinExtractor orderItemJoin;
+    private final Executor extractExecutor;
+    private final MappedCsvReader mappedReader;
+    private final RawBatchPublisher rawBatchPublisher;
+    private final ConfirmingPublisher confirmingPublisher;
+
+    @Value("${etl.extract.single-pass-join:true}")
+    private boolean singlePassJoin;
+
+    @Value("${etl.extract.parallel:true}")
+    private boolean parallel;
+
+    /**
+     * A unit of extraction. Independent files are one stage each; files whose rows must be combined
+     * (orders and their items) form one stage so they are read in a coordinated way.
+     */
+    @FunctionalInterface
+    private interface ExtractStage {
+        List<ExtractFileSummary> run() throws Exception;
+    }
 
-
-    public void extractAllCsvFiles() {
+    public ExtractRunReport extractAllCsvFiles() {
         log.info("Starting batch CSV extraction...");
+        long start = System.nanoTime();
 
+        Resource[] resources;
         try {
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:data/source/*_source.csv");
+            resources = Arrays.stream(resolver.getResources("classpath:data/source/*_source.csv*"))
+                    .filter(resource -> resource.getFilename() != null
+                            && (resource.getFilename().endsWith(".csv") || CompressedInput.isCompressed(resource.getFilename())))
+                    .toArray(Resource[]::new);
+        } catch (IOException e) {
+            log.error("Error during batch CSV extraction: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to extract CSV files", e);
+        }
+        log.info("Found {} CSV files", resources.length);
+
+        Map<List<String>, ExtractStage> stages = planStages(resources);
+        long failedBefore = confirmingPublisher.failedCount();
+        List<ExtractFileSummary> files = parallel ? runParallel(stages) : runSequential(stages);
+        boolean flushed = rawBatchPublisher.flush();
+        long failedPublishes = confirmingPublisher.failedCount() - failedBefore;
+        boolean confirmed = flushed && failedPublishes == 0;
+        if (!confirmed) {
+            log.warn("Batch CSV extraction not confirmed by the broker: {} publishes failed{}", failedPublishes,
+                    flushed ? "" : ", confirms timed out");
+        }
 
-            log.info("Found {} CSV files", resources.length);
+        ExtractRunReport report = ExtractRunReport.builder()
+                .files(files)
+                .parallel(parallel)
+                .totalRows(files.stream().mapToInt(ExtractFileSummary::getRows).sum())
+                .totalErrors(files.stream().mapToInt(ExtractFileSummary::getErrors).sum())
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .confirmed(confirmed)
+                .failedPublishes(failedPublishes)
+                .success(confirmed && files.stream().allMatch(file -> "SUCCESS".equals(file.getStatus())))
+                .build();
+        log.info("Batch CSV extraction completed in {} ms: {} rows, {} errors, {} files{}",
+                report.getElapsedMs(), report.getTotalRows(), report.getTotalErrors(), files.size(),
+                parallel ? " (parallel)" : "");
+        return report;
+    }
 
-            for (Resource resource : resources) {
-                String filename = resource.getFilename();
-                log.info("Processing file: {}", filename);
+    /**
+     * Stages keyed by the files they read.
+     */
+    private Map<List<String>, ExtractStage> planStages(Resource[] resources) {
+        Map<List<String>, ExtractStage> stages = new LinkedHashMap<>();
+
+        // Orders and order items are joined in one pass over both files instead of re-reading the items.
+        Resource orders = findByPrefix(resources, "orders_");
+        Resource orderItems = findByPrefix(resources, "order_items_");
+        if (orders != null && orderItems != null) {
+            stages.put(List.of(orders.getFilename(), orderItems.getFilename()),
+                    singlePassJoin ? () -> joinOrders(orders, orderItems)
+                            : () -> List.of(extractOrders(orders), extractOrderItems(orderItems)));
+        }
 
-                if (filename == null) {
-                    log.warn("Skipping resource with null filename");
-                    continue;
-                }
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                log.warn("Skipping resource with null filename");
+                continue;
+            }
+            if (resource == orders && orderItems != null || resource == orderItems && orders != null) {
+                continue;
+            }
 
-                if (filename.startsWith("books_")) {
-                    extractBooks(resource);
-                } else if (filename.startsWith("customers_")) {
-                    extractCustomers(resource);
-                } else if (filename.startsWith("orders_")) {
-                    extractOrders(resource);
-                } else if (filename.startsWith("order_items_")) {
-                    extractOrderItems(resource);
-                } else if (filename.startsWith("carts_")) {
-                    extractCarts(resource);
-                } else if (filename.startsWith("invoices_")) {
-                    extractInvoices(resource);
-                } else {
-                    log.warn("Skipping unsupported file: {}", filename);
-                }
+            ExtractStage stage;
+            if (filename.startsWith("books_")) {
+                stage = () -> List.of(extractBooks(resource));
+            } else if (filename.startsWith("customers_")) {
+                stage = () -> List.of(extractCustomers(resource));
+            } else if (filename.startsWith("orders_")) {
+                stage = () -> List.of(extractOrders(resource));
+            } else if (filename.startsWith("order_items_")) {
+                stage = () -> List.of(extractOrderItems(resource));
+            } else if (filename.startsWith("carts_")) {
+                stage = () -> List.of(extractCarts(resource));
+            } else if (filename.startsWith("invoices_")) {
+                stage = () -> List.of(extractInvoices(resource));
+            } else {
+                log.warn("Skipping unsupported file: {}", filename);
+                continue;
             }
+            stages.put(List.of(filename), stage);
+        }
+        return stages;
+    }
+
+    private List<ExtractFileSummary> runSequential(Map<List<String>, ExtractStage> stages) {
+        List<ExtractFileSummary> files = new ArrayList<>();
+        stages.forEach((names, stage) -> files.addAll(runStage(names, stage)));
+        return files;
+    }
 
-            log.info("Batch CSV extraction completed");
+    /**
+     * Runs the stages on the bounded extract executor. Parsing is I/O-bound per file, so the stages
+     * overlap; a failing stage is reported in its summaries without stopping the others.
+     */
+    private List<ExtractFileSummary> runParallel(Map<List<String>, ExtractStage> stages) {
+        List<CompletableFuture<List<ExtractFileSummary>>> futures = new ArrayList<>();
+        stages.forEach((names, stage) ->
+                futures.add(CompletableFuture.supplyAsync(() -> runStage(names, stage), extractExecutor)));
+        List<ExtractFileSummary> files = new ArrayList<>();
+        futures.forEach(future -> files.addAll(future.join()));
+        return files;
+    }
 
+    private List<ExtractFileSummary> runStage(List<String> names, ExtractStage stage) {
+        long start = System.nanoTime();
+        try {
+            log.info("Processing file(s): {}", names);
+            return stage.run();
         } catch (Exception e) {
-            log.error("Error during batch CSV extraction: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to extract CSV files", e);
+            log.error("Extraction of {} failed: {}", names, e.getMessage(), e);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            return names.stream()
+                    .map(name -> ExtractFileSummary.builder()
+                            .file(name)
+                            .status("FAILED")
+                            .elapsedMs(elapsedMs)
+                            .error(e.getMessage())
+                            .build())
+                    .toList();
         }
     }
 
-    private void extractBooks(Resource resource) throws Exception {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-            reader.readLine(); // skip header
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] values = line.split(",", -1);
-
-                    BookRawMessage book = BookRawMessage.builder()
-                        .source("batch_csv_extract")
-                        .bookId(values[0])
-                        .title(values[1])
-                        .authors(values[2].isEmpty() ? Collections.emptyList() :
-                                Arrays.asList(values[2].split("[|,]")))
-                        .categories(values[3].isEmpty() ? Collections.emptyList() :
-                                   Arrays.asList(values[3].split("[|,]")))
-                        .price(values[4].isEmpty() ? null : new BigDecimal(values[4]))
-                        .releasedAt(values[5].isEmpty() ? null : LocalDate.parse(values[5]))
-                        .free(Boolean.parseBoolean(values[6]))
-                        .status(values[7])
-                        .description(values.length > 8 ? values[8] : "")
-                        .extractedAt(OffsetDateTime.now())
-                        .build();
-
-                    bookProducer.sendToRaw(book);
-                    count++;
+    private List<ExtractFileSummary> joinOrders(Resource orders, Resource orderItems) throws IOException {
+        OrderItemJoinExtractor.Result result = orderItemJoin.extract(orders, orderItems);
+        return List.of(
+                ExtractFileSummary.builder()
+                        .file(orders.getFilename())
+                        .entity("orders")
+                        .status("SUCCESS")
+                        .rows(result.getOrders())
+                        .errors(result.getOrderErrors())
+                        .elapsedMs(result.getOrdersMs())
+                        .build(),
+                ExtractFileSummary.builder()
+                        .file(orderItems.getFilename())
+                        .entity("order items")
+                        .status("SUCCESS")
+                        .rows(result.getItems())
+                        .errors(result.getItemErrors())
+                        .elapsedMs(result.getItemsMs())
+                        .build());
+    }
 
-                } catch (Exception e) {
-                    log.warn("Failed to parse book line: {} - {}", line, e.getMessage());
-                }
+    private static Resource findByPrefix(Resource[] resources, String prefix) {
+        for (Resource resource : resources) {
+            if (resource.getFilename() != null && resource.getFilename().startsWith(prefix)) {
+                return resource;
             }
         }
-        log.info("Extracted {} books from {}", count, resource.getFilename());
+        return null;
     }
 
-    private void extractCustomers(Resource resource) throws Exception {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-            reader.readLine(); // skip header
-            String line;
+    /**
+     * Feeds every data row of {@code resource} to {@code handler}. A row that fails to map is logged
+     * with its line number and skipped. Large files on the file system are memory-mapped and parsed in
+     * parallel ranges, so {@code handler} must be thread-safe.
+     */
+    private ExtractFileSummary readRows(Resource resource, String entity, Consumer<CsvTokenizer> handler)
+            throws IOException {
+        if (resource.isFile() && !CompressedInput.isCompressed(resource.getFilename())
+                && mappedReader.accepts(resource.contentLength())) {
+            return mappedReader.read(resource.getFile().toPath(), entity, handler);
+        }
+        return readRowsSequentially(resource, entity, handler);
+    }
 
-            while ((line = reader.readLine()) != null) {
+    private ExtractFileSummary readRowsSequentially(Resource resource, String entity, Consumer<CsvTokenizer> handler)
+            throws IOException {
+        long start = System.nanoTime();
+        int count = 0;
+        int errors = 0;
+        try (CsvTokenizer csv = CsvTokenizer.open(resource.getInputStream())) {
+            csv.next(); // skip header
+            while (csv.next()) {
                 try {
-                    String[] values = line.split(",", -1);
-
-                    UserRawMessage customer = UserRawMessage.builder()
-                        .source("batch_csv_extract")
-                        .userId(values[0])
-                        .fullName(values[1])
-                        .email(values[2])
-                        .phone(values[3])
-                        .status(values[4])
-                        .roles(values[5].isEmpty() ? Collections.emptyList() :
-                              Arrays.asList(values[5].split("[|,]")))
-                        .extractedAt(OffsetDateTime.now())
-                        .build();
-
-                    customerProducer.sendToRaw(customer);
+                    handler.accept(csv);
                     count++;
-
-                } catch (Exception e) {
-                    log.warn("Failed to parse customer line: {} - {}", line, e.getMessage());
+                } catch (RuntimeException e) {
+                    errors++;
+                    log.warn("Failed to parse {} line {}: {} - {}", entity, csv.lineNumber(), csv.recordText(), e.getMessage());
                 }
             }
         }
-        log.info("Extracted {} customers from {}", count, resource.getFilename());
+        log.info("Extracted {} {} from {} ({} errors)", count, entity, resource.getFilename(), errors);
+        return ExtractFileSummary.builder()
+                .file(resource.getFilename())
+                .entity(entity)
+                .status("SUCCESS")
+                .rows(count)
+                .errors(errors)
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    /**
+     * Row handler for a source file, chosen by its name prefix like {@link #extractAllCsvFiles}; null for
+     * unsupported files. Orders are published without embedded items, which arrive through their own
+     * order items file.
+     */
+    public Consumer<CsvTokenizer> rowHandler(String filename) {
+        if (filename.startsWith("books_")) {
+            return this::publishBook;
+        } else if (filename.startsWith("customers_")) {
+            return this::publishCustomer;
+        } else if (filename.startsWith("orders_")) {
+            return csv -> publishOrder(csv, Collections.emptyMap());
+        } else if (filename.startsWith("order_items_")) {
+            return this::publishOrderItem;
+        } else if (filename.startsWith("carts_")) {
+            return this::publishCart;
+        } else if (filename.startsWith("invoices_")) {
+            return this::publishInvoice;
+        }
+        return null;
+    }
+
+    private ExtractFileSummary extractBooks(Resource resource) throws Exception {
+        return readRows(resource, "books", this::publishBook);
     }
 
-    private void extractOrders(Resource resource) throws Exception {
+    private ExtractFileSummary extractCustomers(Resource resource) throws Exception {
+        return readRows(resource, "customers", this::publishCustomer);
+    }
+
+    private ExtractFileSummary extractOrders(Resource resource) throws Exception {
         Map<String, List<OrderItemRawMessage>> itemsByOrder = readOrderItemsForOrders();
-        
-        int count = 0;
-        int errors = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+        return readRows(resource, "orders", csv -> publishOrder(csv, itemsByOrder));
+    }
 
-            reader.readLine(); 
-            String line;
+    private ExtractFileSummary extractOrderItems(Resource resource) throws Exception {
+        return readRows(resource, "order items", this::publishOrderItem);
+    }
 
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] values = line.split(",", -1);
-                    String orderId = values[0];
-
-                    BigDecimal totalAmount = values[5].isEmpty() ? BigDecimal.ZERO : new BigDecimal(values[5]);
-                    BigDecimal discount = values[6].isEmpty() ? BigDecimal.ZERO : new BigDecimal(values[6]);
-                    BigDecimal shippingFee = values[7].isEmpty() ? BigDecimal.ZERO : new BigDecimal(values[7]);
-
-                    OrderRawMessage order = OrderRawMessage.builder()
-                        .source("batch_csv_extract")
-                        .orderId(orderId)
-                        .customerName(values[1])
-                        .customerEmail(values[2])
-                        .status(values[3])
-                        .paymentMethod(values[4])
-                        .totalAmount(totalAmount)
-                        .discount(discount)
-                        .shippingFee(shippingFee)
-                        .items(itemsByOrder.getOrDefault(orderId, Collections.emptyList()))
-                        .createdAt(values[8].isEmpty() ? OffsetDateTime.now() :
-                                   LocalDateTime.parse(values[8]).atOffset(java.time.ZoneOffset.UTC))
-                        .extractedAt(OffsetDateTime.now())
-                        .build();
-
-                    orderProducer.sendToRaw(order);
-                    count++;
+    private ExtractFileSummary extractCarts(Resource resource) throws Exception {
+        return readRows(resource, "carts", this::publishCart);
+    }
 
-                } catch (Exception e) {
-                    errors++;
-                    log.error("Failed to parse order line #{}: {} - Error: {}", errors, line, e.getMessage(), e);
-                }
-            }
-        }
-        log.info("Extracted {} orders from {} ({} errors)", count, resource.getFilename(), errors);
+    private ExtractFileSummary extractInvoices(Resource resource) throws Exception {
+        return readRows(resource, "invoices", this::publishInvoice);
+    }
+
+    private void publishBook(CsvTokenizer csv) {
+        bookProducer.sendToRaw(BookRawMessage.builder()
+                .source("batch_csv_extract")
+                .bookId(csv.string(0))
+                .title(csv.string(1))
+                .authors(csv.list(2, '|', ','))
+                .categories(csv.list(3, '|', ','))
+                .price(csv.decimal(4))
+                .releasedAt(csv.date(5))
+                .free(csv.bool(6))
+                .status(csv.string(7))
+                .description(csv.fieldCount() > 8 ? csv.string(8) : "")
+                .extractedAt(OffsetDateTime.now())
+                .build());
     }
-    
+
+    private void publishCustomer(CsvTokenizer csv) {
+        customerProducer.sendToRaw(UserRawMessage.builder()
+                .source("batch_csv_extract")
+                .userId(csv.string(0))
+                .fullName(csv.string(1))
+                .email(csv.string(2))
+                .phone(csv.string(3))
+                .status(csv.string(4))
+                .roles(csv.list(5, '|', ','))
+                .extractedAt(OffsetDateTime.now())
+                .build());
+    }
+
+    private void publishOrder(CsvTokenizer csv, Map<String, List<OrderItemRawMessage>> itemsByOrder) {
+        OrderRawMessage order = OrderCsvMapper.order(csv);
+        orderProducer.sendToRaw(order.toBuilder()
+                .items(itemsByOrder.getOrDefault(order.getOrderId(), Collections.emptyList()))
+                .build());
+    }
+
     private Map<String, List<OrderItemRawMessage>> readOrderItemsForOrders() throws Exception {
         Map<String, List<OrderItemRawMessage>> result = new HashMap<>();
-        
+
         try {
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:data/source/order_items_source.csv");
-            
+            Resource[] resources = resolver.getResources("classpath:data/source/order_items_source.csv*");
+
             if (resources.length == 0) {
                 log.warn("No order_items_source.csv found, orders will have empty items");
                 return result;
             }
-            
-            Resource resource = resources[0];
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-                reader.readLine(); // skip header
-                String line;
-
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        String[] values = line.split(",", -1);
-                        String orderId = values[0];
-                        
-                        OrderItemRawMessage item = OrderItemRawMessage.builder()
-                            .bookId(values[1])
-                            .quantity(values[2].isEmpty() ? 0 : Integer.parseInt(values[2]))
-                            .unitPrice(values[3].isEmpty() ? BigDecimal.ZERO : new BigDecimal(values[3]))
-                            .build();
-                        
-                        result.computeIfAbsent(orderId, k -> new ArrayList<>()).add(item);
-                        
-                    } catch (Exception e) {
-                        log.warn("Failed to parse order item line: {} - {}", line, e.getMessage());
-                    }
-                }
-            }
-            
-            log.info("Loaded {} order items for {} orders", 
+
+            readRowsSequentially(resources[0], "order items for orders", csv -> {
+                result.computeIfAbsent(OrderCsvMapper.itemOrderId(csv), k -> new ArrayList<>())
+                        .add(OrderCsvMapper.embedded(OrderCsvMapper.item(csv)));
+            });
+
+            log.info("Loaded {} order items for {} orders",
                 result.values().stream().mapToInt(List::size).sum(), result.size());
-            
+
         } catch (Exception e) {
             log.error("Error reading order_items_source.csv: {}", e.getMessage(), e);
         }
-        
+
         return result;
     }
 
-    private void extractOrderItems(Resource resource) throws Exception {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-            reader.readLine(); // header
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] values = line.split(",", -1);
-
-                    OrderItemRawMessage item = OrderItemRawMessage.builder()
-                        .bookId(values[1])
-                        .quantity(values[2].isEmpty() ? null : Integer.parseInt(values[2]))
-                        .unitPrice(values[3].isEmpty() ? null : new BigDecimal(values[3]))
-                        .build();
-
-                    orderItemProducer.sendToRaw(item);
-                    count++;
-
-                } catch (Exception e) {
-                    log.warn("Failed to parse order item line: {} - {}", line, e.getMessage());
-                }
-            }
-        }
-        log.info("Extracted {} order items from {}", count, resource.getFilename());
+    private void publishOrderItem(CsvTokenizer csv) {
+        orderItemProducer.sendToRaw(OrderCsvMapper.item(csv));
     }
 
-    private void extractCarts(Resource resource) throws Exception {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-            reader.readLine(); // header
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] values = line.split(",", -1);
-
-                    String[] bookIds = values[2].isEmpty() ? new String[0] : values[2].split("\\|");
-                    String[] quantities = values[3].isEmpty() ? new String[0] : values[3].split("\\|");
-
-                    List<CartItemRawMessage> items = new ArrayList<>();
-                    for (int i = 0; i < Math.min(bookIds.length, quantities.length); i++) {
-                        items.add(CartItemRawMessage.builder()
-                                .bookId(bookIds[i].trim())
-                                .quantity(Integer.parseInt(quantities[i].trim()))
-                                .unitPrice(null)
-                                .build());
-                    }
-
-                    CartRawMessage cart = CartRawMessage.builder()
-                        .source("batch_csv_extract")
-                        .cartId(values[0])
-                        .customerId(values[1])
-                        .items(items)
-                        .createdAt(values[4].isEmpty() ? OffsetDateTime.now() :
-                                   LocalDateTime.parse(values[4]).atOffset(java.time.ZoneOffset.UTC))
-                        .extractedAt(OffsetDateTime.now())
-                        .build();
-
-                    cartProducer.sendToRaw(cart);
-                    count++;
-
-                } catch (Exception e) {
-                    log.warn("Failed to parse cart line: {} - {}", line, e.getMessage());
-                }
-            }
+    private void publishCart(CsvTokenizer csv) {
+        List<String> bookIds = csv.list(2, '|');
+        List<String> quantities = csv.list(3, '|');
+
+        List<CartItemRawMessage> items = new ArrayList<>();
+        for (int i = 0; i < Math.min(bookIds.size(), quantities.size()); i++) {
+            items.add(CartItemRawMessage.builder()
+                    .bookId(bookIds.get(i).trim())
+                    .quantity(Integer.parseInt(quantities.get(i).trim()))
+                    .unitPrice(null)
+                    .build());
         }
-        log.info("Extracted {} carts from {}", count, resource.getFilename());
-    }
 
-    private void extractInvoices(Resource resource) throws Exception {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-            reader.readLine(); // header
-            String line;
+        cartProducer.sendToRaw(CartRawMessage.builder()
+                .source("batch_csv_extract")
+                .cartId(csv.string(0))
+                .customerId(csv.string(1))
+                .items(items)
+                .createdAt(utcOrNow(csv.dateTime(4)))
+                .extractedAt(OffsetDateTime.now())
+                .build());
+    }
 
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] values = line.split(",", -1);
-
-                    InvoiceRawMessage invoice = InvoiceRawMessage.builder()
-                        .source("batch_csv_extract")
-                        .invoiceId(values[0])
-                        .orderId(values[1])
-                        .amount(values[2].isEmpty() ? null : new BigDecimal(values[2]))
-                        .status(values[3])
-                        .issuedAt(values[4].isEmpty() ? OffsetDateTime.now() :
-                                  LocalDateTime.parse(values[4]).atOffset(java.time.ZoneOffset.UTC))
-                        .dueAt(values.length > 5 && !values[5].isEmpty() ?
-                               LocalDateTime.parse(values[5]).atOffset(java.time.ZoneOffset.UTC) : null)
-                        .extractedAt(OffsetDateTime.now())
-                        .build();
-
-                    invoiceProducer.sendToRaw(invoice);
-                    count++;
+    private void publishInvoice(CsvTokenizer csv) {
+        LocalDateTime dueAt = csv.fieldCount() > 5 ? csv.dateTime(5) : null;
+        invoiceProducer.sendToRaw(InvoiceRawMessage.builder()
+                .source("batch_csv_extract")
+                .invoiceId(csv.string(0))
+                .orderId(csv.string(1))
+                .amount(csv.decimal(2))
+                .status(csv.string(3))
+                .issuedAt(utcOrNow(csv.dateTime(4)))
+                .dueAt(dueAt == null ? null : dueAt.atOffset(ZoneOffset.UTC))
+                .extractedAt(OffsetDateTime.now())
+                .build());
+    }
 
-                } catch (Exception e) {
-                    log.warn("Failed to parse invoice line: {} - {}", line, e.getMessage());
-                }
-            }
-        }
-        log.info("Extracted {} invoices from {}", count, resource.getFilename());
+    private static OffsetDateTime utcOrNow(LocalDateTime value) {
+        return value == null ? OffsetDateTime.now() : value.atOffset(ZoneOffset.UTC);
     }
 }
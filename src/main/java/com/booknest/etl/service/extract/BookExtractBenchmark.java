@@ -0,0 +1,123 @@
+package com.booknest.etl.service.extract;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.booknest.etl.dto.BookRawMessage;
+import com.booknest.etl.repository.book.BookJdbcRepository;
+import com.booknest.etl.repository.book.BookJdbcRepository.ExtractStrategy;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs both book extract strategies against the live source_db. Each round reads the whole catalogue
+ * with either strategy (alternating which goes first, after one untimed warm-up each), then one extra
+ * pass walks both results side by side to check they agree.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookExtractBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExtractBenchmark.class);
+
+    private final BookJdbcRepository bookJdbcRepository;
+
+    @Value("${etl.extract.page-size:1000}")
+    private int pageSize;
+
+    public BookExtractBenchmarkReport run(int rounds) {
+        drain(ExtractStrategy.GROUP_CONCAT);
+        drain(ExtractStrategy.TWO_PHASE);
+
+        List<Long> groupConcatMs = new ArrayList<>(rounds);
+        List<Long> twoPhaseMs = new ArrayList<>(rounds);
+        long books = 0;
+        for (int round = 0; round < rounds; round++) {
+            ExtractStrategy first = round % 2 == 0 ? ExtractStrategy.GROUP_CONCAT : ExtractStrategy.TWO_PHASE;
+            ExtractStrategy second = first == ExtractStrategy.GROUP_CONCAT ? ExtractStrategy.TWO_PHASE : ExtractStrategy.GROUP_CONCAT;
+            for (ExtractStrategy strategy : List.of(first, second)) {
+                long start = System.nanoTime();
+                books = drain(strategy);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                (strategy == ExtractStrategy.GROUP_CONCAT ? groupConcatMs : twoPhaseMs).add(elapsedMs);
+            }
+        }
+
+        BookExtractBenchmarkReport report = BookExtractBenchmarkReport.builder()
+                .books(books)
+                .rounds(rounds)
+                .pageSize(pageSize)
+                .joinedRows(bookJdbcRepository.countJoinedRows())
+                .linkRows(bookJdbcRepository.countLinkRows())
+                .groupConcatMs(groupConcatMs)
+                .twoPhaseMs(twoPhaseMs)
+                .groupConcatMedianMs(median(groupConcatMs))
+                .twoPhaseMedianMs(median(twoPhaseMs))
+                .mismatches(countMismatches())
+                .build();
+        log.info("Book extract benchmark: {} books, GROUP_CONCAT median {} ms ({} joined rows), two-phase median {} ms ({} link rows), {} mismatches",
+                report.getBooks(), report.getGroupConcatMedianMs(), report.getJoinedRows(),
+                report.getTwoPhaseMedianMs(), report.getLinkRows(), report.getMismatches());
+        return report;
+    }
+
+    private long drain(ExtractStrategy strategy) {
+        try (Stream<BookRawMessage> books = bookJdbcRepository.streamAll(strategy)) {
+            return books.count();
+        }
+    }
+
+    /**
+     * Both strategies return books in id order, so the two streams can be compared pairwise. Author and
+     * category lists are compared as sets since GROUP_CONCAT does not promise an order.
+     */
+    private int countMismatches() {
+        int mismatches = 0;
+        try (Stream<BookRawMessage> expected = bookJdbcRepository.streamAll(ExtractStrategy.GROUP_CONCAT);
+             Stream<BookRawMessage> actual = bookJdbcRepository.streamAll(ExtractStrategy.TWO_PHASE)) {
+            Iterator<BookRawMessage> left = expected.iterator();
+            Iterator<BookRawMessage> right = actual.iterator();
+            while (left.hasNext() || right.hasNext()) {
+                if (!left.hasNext() || !right.hasNext()) {
+                    mismatches++;
+                    (left.hasNext() ? left : right).next();
+                    continue;
+                }
+                BookRawMessage a = left.next();
+                BookRawMessage b = right.next();
+                if (!sameBook(a, b)) {
+                    mismatches++;
+                    log.warn("Book {} differs between strategies: {} vs {}", a.getBookId(), a, b);
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static boolean sameBook(BookRawMessage a, BookRawMessage b) {
+        return Objects.equals(withoutLinks(a), withoutLinks(b))
+                && new HashSet<>(a.getAuthors()).equals(new HashSet<>(b.getAuthors()))
+                && new HashSet<>(a.getCategories()).equals(new HashSet<>(b.getCategories()));
+    }
+
+    private static BookRawMessage withoutLinks(BookRawMessage book) {
+        return book.toBuilder().authors(null).categories(null).extractedAt(null).build();
+    }
+
+    private static long median(List<Long> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+}
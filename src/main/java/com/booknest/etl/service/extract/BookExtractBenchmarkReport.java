@@ -0,0 +1,25 @@
+package com.booknest.etl.service.extract;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Timings of the GROUP_CONCAT and two-phase book extracts over the same catalogue, plus how many rows
+ * each one makes the server produce and whether they returned the same books.
+ */
+@Value
+@Builder
+public class BookExtractBenchmarkReport {
+    long books;
+    int rounds;
+    int pageSize;
+    long joinedRows;
+    long linkRows;
+    List<Long> groupConcatMs;
+    List<Long> twoPhaseMs;
+    long groupConcatMedianMs;
+    long twoPhaseMedianMs;
+    int mismatches;
+}
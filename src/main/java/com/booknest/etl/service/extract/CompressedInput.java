@@ -0,0 +1,100 @@
+package com.booknest.etl.service.extract;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Transparent streaming decompression for extract inputs. The format is detected from the first bytes,
+ * not the file name, so a renamed or extension-less upload is still read correctly; plain input passes
+ * through unchanged. Data is inflated as it is read and never lands on disk.
+ *
+ * <p>gzip uses the JDK. zstd goes through commons-compress backed by the zstd-jni native decoder.
+ */
+public final class CompressedInput {
+
+    private static final List<String> SUFFIXES = List.of(".gz", ".zst", ".zstd");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Wraps {@code in} in a decompressor when it starts with a gzip or zstd magic number. If that fails,
+     * {@code in} is closed before the exception propagates, since the caller never gets a stream to close.
+     */
+    public static InputStream open(InputStream in) throws IOException {
+        try {
+            return detect(in);
+        } catch (IOException | RuntimeException e) {
+            try {
+                in.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream detect(InputStream in) throws IOException {
+        InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+
+        if (magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        if (magic.length == 4 && (magic[0] & 0xFF) == 0x28 && (magic[1] & 0xFF) == 0xB5
+                && (magic[2] & 0xFF) == 0x2F && (magic[3] & 0xFF) == 0xFD) {
+            if (!ZstdUtils.isZstdCompressionAvailable()) {
+                throw new IOException("zstd input found but the zstd-jni native decoder is not available on this platform");
+            }
+            return new BufferedInputStream(new ZstdCompressorInputStream(buffered), BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    public static boolean isCompressed(String filename) {
+        return filename != null && SUFFIXES.stream().anyMatch(filename::endsWith);
+    }
+
+    /**
+     * {@code books_source.csv.gz} becomes {@code books_source.csv}.
+     */
+    public static String stripSuffix(String filename) {
+        if (filename != null) {
+            for (String suffix : SUFFIXES) {
+                if (filename.endsWith(suffix)) {
+                    return filename.substring(0, filename.length() - suffix.length());
+                }
+            }
+        }
+        return filename;
+    }
+
+    /**
+     * {@code location} itself when it exists, otherwise its first compressed variant that does, otherwise
+     * {@code location} (so the caller reports the plain name as missing).
+     */
+    public static Resource resolve(ResourceLoader resourceLoader, String location) {
+        Resource plain = resourceLoader.getResource(location);
+        if (plain.exists()) {
+            return plain;
+        }
+        for (String suffix : SUFFIXES) {
+            Resource compressed = resourceLoader.getResource(location + suffix);
+            if (compressed.exists()) {
+                return compressed;
+            }
+        }
+        return plain;
+    }
+}
@@ -1,6 +1,7 @@
 package com.booknest.etl.service.extract;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigDecimal;
@@ -13,6 +14,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -39,102 +42,124 @@ public class CsvExtractService {
     private final ResourceLoader resourceLoader;
 
     public List<BookRawMessage> readBooks() {
-        return readBooksFromResource("classpath:data/source/books_source.csv");
+        try (Stream<BookRawMessage> books = streamBooks()) {
+            return books.toList();
+        }
     }
 
     public List<UserRawMessage> readCustomers() {
-        return readCustomersFromResource("classpath:data/source/customers_source.csv");
+        try (Stream<UserRawMessage> customers = streamCustomers()) {
+            return customers.toList();
+        }
     }
 
     public List<OrderRawMessage> readOrders() {
-        return readOrdersFromResource(
-                "classpath:data/source/orders_source.csv",
-                "classpath:data/source/order_items_source.csv"
-        );
+        try (Stream<OrderRawMessage> orders = streamOrders()) {
+            return orders.toList();
+        }
     }
 
-    private List<BookRawMessage> readBooksFromResource(String location) {
-        Resource resource = resourceLoader.getResource(location);
-        List<BookRawMessage> result = new ArrayList<>();
-        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
-             CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
-            for (CSVRecord record : parser) {
-                result.add(BookRawMessage.builder()
-                        .source("csv")
-                        .bookId(record.get("book_id"))
-                        .title(record.get("title"))
-                        .description(record.get("description"))
-                        .price(parseBigDecimal(record.get("price")))
-                        .free(Boolean.parseBoolean(record.get("free_flag")))
-                        .releasedAt(parseDate(record.get("released_at")))
-                        .status("HIEU_LUC")
-                        .authors(splitToList(record.get("authors")))
-                        .categories(splitToList(record.get("categories")))
-                        .extractedAt(OffsetDateTime.now())
-                        .build());
-            }
-        } catch (IOException ex) {
-            log.error("Cannot read CSV books from {}", location, ex);
-        }
-        return result;
+    /**
+     * Lazily parsed books; each record is mapped when the stream pulls it. Close the stream to close the file.
+     */
+    public Stream<BookRawMessage> streamBooks() {
+        return streamRecords("classpath:data/source/books_source.csv", "books", record -> BookRawMessage.builder()
+                .source("csv")
+                .bookId(record.get("book_id"))
+                .title(record.get("title"))
+                .description(record.get("description"))
+                .price(parseBigDecimal(record.get("price")))
+                .free(Boolean.parseBoolean(record.get("free_flag")))
+                .releasedAt(parseDate(record.get("released_at")))
+                .status("HIEU_LUC")
+                .authors(splitToList(record.get("authors")))
+                .categories(splitToList(record.get("categories")))
+                .extractedAt(OffsetDateTime.now())
+                .build());
     }
 
-    private List<UserRawMessage> readCustomersFromResource(String location) {
-        Resource resource = resourceLoader.getResource(location);
-        List<UserRawMessage> result = new ArrayList<>();
-        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
-             CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
-            for (CSVRecord record : parser) {
-                result.add(UserRawMessage.builder()
-                        .source("csv")
-                        .userId(record.get("customer_id"))
-                        .fullName(record.get("full_name"))
-                        .email(record.get("email"))
-                        .phone(record.get("phone"))
-                        .status(record.get("status"))
-                        .roles(splitToList(record.get("roles")))
-                        .extractedAt(OffsetDateTime.now())
-                        .build());
-            }
+    public Stream<UserRawMessage> streamCustomers() {
+        return streamRecords("classpath:data/source/customers_source.csv", "customers", record -> UserRawMessage.builder()
+                .source("csv")
+                .userId(record.get("customer_id"))
+                .fullName(record.get("full_name"))
+                .email(record.get("email"))
+                .phone(record.get("phone"))
+                .status(record.get("status"))
+                .roles(splitToList(record.get("roles")))
+                .extractedAt(OffsetDateTime.now())
+                .build());
+    }
+
+    /**
+     * Orders are streamed; their items are looked up in a map of the (much smaller) order items file,
+     * which is read up front.
+     */
+    public Stream<OrderRawMessage> streamOrders() {
+        Map<String, List<OrderItemRawMessage>> itemsByOrder = readOrderItems("classpath:data/source/order_items_source.csv");
+        return streamRecords("classpath:data/source/orders_source.csv", "orders", record -> {
+            String orderId = record.get("order_id");
+            return OrderRawMessage.builder()
+                    .source("csv")
+                    .orderId(orderId)
+                    .customerName(record.get("customer_name"))
+                    .customerEmail(record.get("customer_email"))
+                    .status(record.get("status"))
+                    .paymentMethod(record.get("payment_method"))
+                    .totalAmount(parseBigDecimal(record.get("total_amount")))
+                    .discount(parseBigDecimal(record.get("discount")))
+                    .shippingFee(parseBigDecimal(record.get("shipping_fee")))
+                    .items(itemsByOrder.getOrDefault(orderId, List.of()))
+                    .createdAt(parseDateTime(record.get("created_at")))
+                    .extractedAt(OffsetDateTime.now())
+                    .build();
+        });
+    }
+
+    private <T> Stream<T> streamRecords(String location, String entity, Function<CSVRecord, T> mapper) {
+        Resource resource = CompressedInput.resolve(resourceLoader, location);
+        // The parser only owns the stream once it is built; until then a failure must close it here.
+        InputStream in = null;
+        CSVParser parser;
+        try {
+            in = resource.getInputStream();
+            parser = CSVFormat.DEFAULT.withFirstRecordAsHeader()
+                    .parse(new InputStreamReader(CompressedInput.open(in), StandardCharsets.UTF_8));
         } catch (IOException ex) {
-            log.error("Cannot read CSV customers from {}", location, ex);
+            closeQuietly(in, entity, location);
+            log.error("Cannot read CSV {} from {}", entity, location, ex);
+            return Stream.empty();
+        } catch (RuntimeException ex) {
+            closeQuietly(in, entity, location);
+            throw ex;
         }
-        return result;
+        return parser.stream()
+                .map(mapper)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException ex) {
+                        log.warn("Cannot close CSV {} from {}", entity, location, ex);
+                    }
+                });
     }
 
-    private List<OrderRawMessage> readOrdersFromResource(String ordersLocation, String orderItemsLocation) {
-        Map<String, List<OrderItemRawMessage>> itemsByOrder = readOrderItems(orderItemsLocation);
-        Resource resource = resourceLoader.getResource(ordersLocation);
-        List<OrderRawMessage> result = new ArrayList<>();
-        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
-             CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
-            for (CSVRecord record : parser) {
-                String orderId = record.get("order_id");
-                result.add(OrderRawMessage.builder()
-                        .source("csv")
-                        .orderId(orderId)
-                        .customerName(record.get("customer_name"))
-                        .customerEmail(record.get("customer_email"))
-                        .status(record.get("status"))
-                        .paymentMethod(record.get("payment_method"))
-                        .totalAmount(parseBigDecimal(record.get("total_amount")))
-                        .discount(parseBigDecimal(record.get("discount")))
-                        .shippingFee(parseBigDecimal(record.get("shipping_fee")))
-                        .items(itemsByOrder.getOrDefault(orderId, List.of()))
-                        .createdAt(parseDateTime(record.get("created_at")))
-                        .extractedAt(OffsetDateTime.now())
-                        .build());
-            }
+    private void closeQuietly(InputStream in, String entity, String location) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
         } catch (IOException ex) {
-            log.error("Cannot read CSV orders from {}", ordersLocation, ex);
+            log.warn("Cannot close CSV {} from {}", entity, location, ex);
         }
-        return result;
     }
 
     private Map<String, List<OrderItemRawMessage>> readOrderItems(String location) {
-        Resource resource = resourceLoader.getResource(location);
+        Resource resource = CompressedInput.resolve(resourceLoader, location);
         Map<String, List<OrderItemRawMessage>> result = new HashMap<>();
-        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
+        try (InputStream in = resource.getInputStream();
+             Reader reader = new InputStreamReader(CompressedInput.open(in), StandardCharsets.UTF_8);
              CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
             for (CSVRecord record : parser) {
                 String orderId = record.get("order_id");
@@ -0,0 +1,302 @@
+package com.booknest.etl.service.extract;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader. Records are read through a fixed char buffer and unescaped into one
+ * reused record array; {@link #field(int)} returns a view into that array, so a field only becomes a
+ * String when {@link #string(int)} is called. Numbers and dates are parsed straight from the view.
+ * Quoted fields may contain the delimiter, line breaks and doubled quotes. Blank lines are skipped.
+ *
+ * <p>Views and parsed positions are only valid until the next call to {@link #next()}.
+ */
+public final class CsvTokenizer implements Closeable {
+
+    private static final int EOF = -1;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[256];
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fields;
+
+    private long line;
+    private long recordLine;
+
+    public CsvTokenizer(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvTokenizer(Reader reader, char delimiter) {
+        this(reader, delimiter, 1);
+    }
+
+    /**
+     * For input that is a slice of a larger file: {@code firstLine} is the physical line number the
+     * slice starts on, so {@link #lineNumber()} still reports positions in the whole file.
+     */
+    CsvTokenizer(Reader reader, char delimiter, long firstLine) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.line = firstLine - 1;
+    }
+
+    /**
+     * UTF-8 reader over {@code in}, inflated on the fly when it is gzip or zstd compressed.
+     */
+    public static CsvTokenizer open(InputStream in) throws IOException {
+        return new CsvTokenizer(new InputStreamReader(CompressedInput.open(in), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Advances to the next record. Returns false at the end of the input.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            fields = 0;
+            length = 0;
+            recordLine = line + 1;
+            int c = read();
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '\n' || c == '\r') {
+                endOfLine(c);
+                continue;
+            }
+            parseRecord(c);
+            return true;
+        }
+    }
+
+    private void parseRecord(int c) throws IOException {
+        int start = 0;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    throw new IOException("Unterminated quoted field in record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following != '"') {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                    append('"');
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == '"' && length == start) {
+                quoted = true;
+            } else if (c == delimiter) {
+                endField(start);
+                start = length;
+            } else if (c == '\n' || c == '\r' || c == EOF) {
+                endField(start);
+                if (c != EOF) {
+                    endOfLine(c);
+                }
+                return;
+            } else {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    public int fieldCount() {
+        return fields;
+    }
+
+    /**
+     * The field as a view into the record buffer, without copying.
+     */
+    public CharSequence field(int index) {
+        check(index);
+        return CharBuffer.wrap(record, starts[index], ends[index] - starts[index]);
+    }
+
+    public String string(int index) {
+        check(index);
+        return new String(record, starts[index], ends[index] - starts[index]);
+    }
+
+    public boolean isEmpty(int index) {
+        check(index);
+        return starts[index] == ends[index];
+    }
+
+    public BigDecimal decimal(int index) {
+        return isEmpty(index) ? null : new BigDecimal(record, starts[index], ends[index] - starts[index]);
+    }
+
+    public Integer integer(int index) {
+        return isEmpty(index) ? null : Integer.parseInt(field(index), 0, ends[index] - starts[index], 10);
+    }
+
+    public boolean bool(int index) {
+        check(index);
+        int start = starts[index];
+        return ends[index] - start == 4
+                && Character.toLowerCase(record[start]) == 't'
+                && Character.toLowerCase(record[start + 1]) == 'r'
+                && Character.toLowerCase(record[start + 2]) == 'u'
+                && Character.toLowerCase(record[start + 3]) == 'e';
+    }
+
+    public LocalDate date(int index) {
+        return isEmpty(index) ? null : LocalDate.parse(field(index));
+    }
+
+    public LocalDateTime dateTime(int index) {
+        return isEmpty(index) ? null : LocalDateTime.parse(field(index));
+    }
+
+    /**
+     * Splits a multi-valued field (e.g. {@code "A|B"}) on any of the separators.
+     */
+    public List<String> list(int index, char... separators) {
+        return split(field(index), separators);
+    }
+
+    /**
+     * All fields of the record as Strings, e.g. for a header row.
+     */
+    public String[] strings() {
+        String[] values = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            values[i] = string(i);
+        }
+        return values;
+    }
+
+    /**
+     * Physical line the current record starts on (1-based).
+     */
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * The current record joined back with the delimiter, for log messages.
+     */
+    public String recordText() {
+        StringBuilder text = new StringBuilder(length + fields);
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                text.append(delimiter);
+            }
+            text.append(record, starts[i], ends[i] - starts[i]);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Splits {@code value} on any of the separators without a regex. An empty value yields an empty list.
+     */
+    public static List<String> split(CharSequence value, char... separators) {
+        if (value == null || value.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (isSeparator(value.charAt(i), separators)) {
+                parts.add(value.subSequence(start, i).toString());
+                start = i + 1;
+            }
+        }
+        parts.add(value.subSequence(start, value.length()).toString());
+        return parts;
+    }
+
+    private static boolean isSeparator(char c, char[] separators) {
+        for (char separator : separators) {
+            if (c == separator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= fields) {
+            throw new IndexOutOfBoundsException("Field " + index + " of a " + fields + "-field record on line " + recordLine);
+        }
+    }
+
+    private void append(char c) {
+        if (length == record.length) {
+            record = Arrays.copyOf(record, length * 2);
+        }
+        record[length++] = c;
+    }
+
+    private void endField(int start) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+            ends = Arrays.copyOf(ends, fields * 2);
+        }
+        starts[fields] = start;
+        ends[fields] = length;
+        fields++;
+    }
+
+    private void endOfLine(int c) throws IOException {
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        line++;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
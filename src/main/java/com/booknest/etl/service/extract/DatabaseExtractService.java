@@ -1,6 +1,7 @@
 package com.booknest.etl.service.extract;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
 
@@ -39,4 +40,25 @@ public class DatabaseExtractService {
     public List<InvoiceRawMessage> fetchInvoices() {
         return invoiceJdbcRepository.findAll();
     }
+
+    /*
+     * Lazy variants of the fetch methods: source_db is read in keyset pages of etl.extract.page-size
+     * rows as the stream is consumed, so neither the whole table nor a long-running query is held.
+     */
+
+    public Stream<BookRawMessage> streamBooks() {
+        return bookJdbcRepository.streamAll();
+    }
+
+    public Stream<UserRawMessage> streamUsers() {
+        return userJdbcRepository.streamAll();
+    }
+
+    public Stream<CartRawMessage> streamCarts() {
+        return cartJdbcRepository.streamAll();
+    }
+
+    public Stream<InvoiceRawMessage> streamInvoices() {
+        return invoiceJdbcRepository.streamAll();
+    }
 }
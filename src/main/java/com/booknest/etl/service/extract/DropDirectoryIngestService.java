@@ -0,0 +1,270 @@
+package com.booknest.etl.service.extract;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.booknest.etl.dto.IngestCheckpoint;
+import com.booknest.etl.messaging.producer.ConfirmingPublisher;
+import com.booknest.etl.messaging.producer.RawBatchPublisher;
+import com.booknest.etl.repository.staging.IngestCheckpointRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Watches a drop directory for new and growing CSV files and publishes only the bytes appended since
+ * the last run. Files are dispatched by name prefix like the classpath batch extract. Each file is read
+ * in slices cut at record boundaries, so a line break inside a quoted field never splits a record; after
+ * a slice has been published its end offset is checkpointed in staging_db, so after a crash ingestion
+ * resumes from the last slice instead of line 1. A slice the broker did not confirm is not checkpointed:
+ * ingestion of the file stops there and the slice is published again on the next scan.
+ *
+ * <p>A trailing record without a newline, or with a quoted field still open, is treated as still being
+ * written until the file has not changed for {@code settle-ms}. A settled file that ends inside a quoted
+ * field fails on its last slice and is not checkpointed past it. A file that shrank or was replaced
+ * (different file key) is ingested again from the start.
+ */
+@Service
+@ConditionalOnProperty(name = "etl.extract.ingest.enabled", havingValue = "true")
+public class DropDirectoryIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(DropDirectoryIngestService.class);
+
+    private final BatchCsvExtractService batchCsvExtractService;
+    private final IngestCheckpointRepository checkpoints;
+    private final RawBatchPublisher rawBatchPublisher;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final Path directory;
+    private final long sliceBytes;
+    private final long settleMs;
+    private final long rescanMs;
+
+    private WatchService watchService;
+    private Thread watcher;
+    private volatile boolean running;
+
+    public DropDirectoryIngestService(BatchCsvExtractService batchCsvExtractService,
+                                      IngestCheckpointRepository checkpoints,
+                                      RawBatchPublisher rawBatchPublisher,
+                                      ConfirmingPublisher confirmingPublisher,
+                                      @Value("${etl.extract.ingest.dir}") String directory,
+                                      @Value("${etl.extract.ingest.checkpoint-kb:1024}") int checkpointKb,
+                                      @Value("${etl.extract.ingest.settle-ms:5000}") long settleMs,
+                                      @Value("${etl.extract.ingest.rescan-ms:10000}") long rescanMs) {
+        this.batchCsvExtractService = batchCsvExtractService;
+        this.checkpoints = checkpoints;
+        this.rawBatchPublisher = rawBatchPublisher;
+        this.confirmingPublisher = confirmingPublisher;
+        this.directory = Path.of(directory);
+        this.sliceBytes = (long) checkpointKb << 10;
+        this.settleMs = settleMs;
+        this.rescanMs = rescanMs;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        watcher = new Thread(this::watch, "etl-ingest-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for CSV files", directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        watchService.close();
+        watcher.interrupt();
+    }
+
+    private void watch() {
+        scanAll();
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(rescanMs, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // Picks up settled trailing lines and anything the watch service did not report.
+                    scanAll();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scanAll();
+                    } else {
+                        ingest(directory.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Drop directory ingestion failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void scanAll() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : files) {
+                ingest(file);
+            }
+        } catch (IOException e) {
+            log.error("Cannot list {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the complete lines of {@code file} past its checkpoint.
+     */
+    public void ingest(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".csv") || !Files.isRegularFile(file)) {
+            return;
+        }
+        Consumer<CsvTokenizer> handler = batchCsvExtractService.rowHandler(name);
+        if (handler == null) {
+            log.debug("Skipping unsupported file: {}", name);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String fileKey = attributes.fileKey() == null ? null : attributes.fileKey().toString();
+            long size = channel.size();
+
+            IngestCheckpoint checkpoint = checkpoints.find(name);
+            long offset = checkpoint.getByteOffset();
+            long line = checkpoint.getNextLine();
+            long published = checkpoint.getRowsPublished();
+            if (size < offset || (checkpoint.getFileKey() != null && !checkpoint.getFileKey().equals(fileKey))) {
+                log.info("{} was truncated or replaced, ingesting it from the start", name);
+                offset = 0;
+                line = 1;
+                published = 0;
+            }
+
+            boolean settled = attributes.lastModifiedTime().toMillis() < System.currentTimeMillis() - settleMs;
+            long end = settled ? size : recordEnd(channel, offset, Long.MAX_VALUE, size);
+            if (offset == 0 && end > 0) {
+                offset = recordEnd(channel, 0, 1, end); // header
+                if (offset == 0) {
+                    return;
+                }
+                line = 1 + MappedCsvReader.countNewlines(channel, 0, offset);
+            }
+            if (offset >= end) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            long startOffset = offset;
+            int rows = 0;
+            int errors = 0;
+            while (offset < end) {
+                long sliceEnd = end;
+                if (offset + sliceBytes < end) {
+                    long cut = recordEnd(channel, offset, offset + sliceBytes, end);
+                    sliceEnd = cut < offset + sliceBytes ? end : cut;
+                }
+                long failedBefore = confirmingPublisher.failedCount();
+                int[] counts = publishSlice(channel, offset, sliceEnd, line, name, handler);
+                // Buffered records must be on the broker before the checkpoint moves past them.
+                if (!rawBatchPublisher.flush() || confirmingPublisher.failedCount() != failedBefore) {
+                    log.warn("Ingestion of {} stopped at byte {} (line {}): slice not confirmed by the broker", name,
+                            offset, line);
+                    break;
+                }
+                rows += counts[0];
+                errors += counts[1];
+                published += counts[0];
+                line += MappedCsvReader.countNewlines(channel, offset, sliceEnd);
+                offset = sliceEnd;
+                checkpoints.save(name, fileKey, offset, line, published);
+            }
+            log.info("Ingested {} rows ({} errors) from {} bytes {}-{} in {} ms", rows, errors, name, startOffset, offset,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Cannot ingest {}: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private int[] publishSlice(FileChannel channel, long from, long to, long firstLine, String name,
+                               Consumer<CsvTokenizer> handler) throws IOException {
+        int rows = 0;
+        int errors = 0;
+        ByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        try (CsvTokenizer csv = new CsvTokenizer(new InputStreamReader(
+                new MappedCsvReader.ByteBufferInputStream(slice), StandardCharsets.UTF_8), ',', firstLine)) {
+            while (csv.next()) {
+                try {
+                    handler.accept(csv);
+                    rows++;
+                } catch (RuntimeException e) {
+                    errors++;
+                    log.warn("Failed to parse {} line {}: {} - {}", name, csv.lineNumber(), csv.recordText(), e.getMessage());
+                }
+            }
+        }
+        return new int[] {rows, errors};
+    }
+
+    /**
+     * Position just after the first record-ending '\n' at or after {@code target}, scanning from {@code from},
+     * which must be the start of a record. If no record ends at or after {@code target} before {@code limit},
+     * the end of the last record before {@code limit}, or {@code from} if there is none.
+     *
+     * <p>A '\n' inside a quoted field does not end a record. Every '"' flips the quote state, which also
+     * holds for doubled quotes; both bytes are ASCII, so they never occur inside a multi-byte UTF-8 character.
+     */
+    static long recordEnd(FileChannel channel, long from, long target, long limit) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        boolean quoted = false;
+        long lastEnd = from;
+        long blockStart = from;
+        while (blockStart < limit) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), limit - blockStart));
+            int read = channel.read(buffer, blockStart);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    lastEnd = blockStart + i + 1;
+                    if (lastEnd >= target) {
+                        return lastEnd;
+                    }
+                }
+            }
+            blockStart += read;
+        }
+        return lastEnd;
+    }
+}
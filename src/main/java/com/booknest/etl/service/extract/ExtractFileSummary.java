@@ -0,0 +1,19 @@
+package com.booknest.etl.service.extract;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Rows published, rows rejected by the parser and wall time for one source file of a batch extract.
+ */
+@Value
+@Builder
+public class ExtractFileSummary {
+    String file;
+    String entity;
+    String status;
+    int rows;
+    int errors;
+    long elapsedMs;
+    String error;
+}
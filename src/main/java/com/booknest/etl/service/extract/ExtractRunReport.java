@@ -0,0 +1,25 @@
+package com.booknest.etl.service.extract;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of one batch CSV extract: a summary per file plus the run totals. A run is only successful if
+ * every file was read and the broker confirmed every published message.
+ */
+@Value
+@Builder
+public class ExtractRunReport {
+    List<ExtractFileSummary> files;
+    boolean parallel;
+    int totalRows;
+    int totalErrors;
+    long elapsedMs;
+    /** Whether every publish was confirmed within the confirm timeout. */
+    boolean confirmed;
+    /** Messages the publisher gave up on during this run. */
+    long failedPublishes;
+    boolean success;
+}
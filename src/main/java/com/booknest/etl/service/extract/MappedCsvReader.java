@@ -0,0 +1,234 @@
+package com.booknest.etl.service.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reads large CSV files from the file system by memory-mapping them and parsing newline-aligned byte
+ * ranges in parallel. Each range gets its own {@link CsvTokenizer}; the number of newlines before a
+ * range is computed up front so records still report their line number in the whole file.
+ *
+ * <p>Ranges are cut at line breaks, so quoted fields must not contain line breaks. The nightly exports
+ * this is meant for never do; smaller files keep going through the sequential reader.
+ */
+@Component
+public class MappedCsvReader {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedCsvReader.class);
+
+    private final long rangeSize;
+    private final long minFileSize;
+    private final ForkJoinPool pool;
+
+    public MappedCsvReader(@Value("${etl.extract.mmap.range-size-mb:32}") int rangeSizeMb,
+                           @Value("${etl.extract.mmap.min-file-size-mb:128}") int minFileSizeMb,
+                           @Value("${etl.extract.mmap.parallelism:0}") int parallelism) {
+        // A single mapping cannot exceed 2 GB.
+        this.rangeSize = Math.min((long) rangeSizeMb << 20, Integer.MAX_VALUE);
+        this.minFileSize = (long) minFileSizeMb << 20;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Whether {@code size} bytes are worth mapping and splitting rather than reading sequentially.
+     */
+    public boolean accepts(long size) {
+        return size >= minFileSize;
+    }
+
+    private static final class Range {
+        final long start;
+        final long end;
+        long firstLine;
+        int rows;
+        int errors;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Parses every record after the header line of {@code file}, calling {@code handler} concurrently
+     * from the pool's threads with one tokenizer per range. Records the handler rejects with a runtime
+     * exception are logged with their line number and counted as errors.
+     */
+    public ExtractFileSummary read(Path file, String entity, Consumer<CsvTokenizer> handler) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long headerEnd = nextLineStart(channel, 0);
+            List<Range> ranges = split(channel, headerEnd);
+
+            // Line numbers: the header is line 1, each range starts after the newlines of the ranges before it.
+            List<Long> newlines = invokeAll(ranges.stream()
+                    .<Callable<Long>>map(range -> () -> countNewlines(channel, range.start, range.end))
+                    .toList());
+            long line = 2;
+            for (int i = 0; i < ranges.size(); i++) {
+                ranges.get(i).firstLine = line;
+                line += newlines.get(i);
+            }
+
+            invokeAll(ranges.stream()
+                    .<Callable<Void>>map(range -> () -> {
+                        parse(channel, range, entity, handler);
+                        return null;
+                    })
+                    .toList());
+
+            int rows = ranges.stream().mapToInt(range -> range.rows).sum();
+            int errors = ranges.stream().mapToInt(range -> range.errors).sum();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("Extracted {} {} from {} ({} MB) in {} ranges on {} threads ({} errors, {} ms)", rows, entity,
+                    file.getFileName(), channel.size() >> 20, ranges.size(), pool.getParallelism(), errors, elapsedMs);
+            return ExtractFileSummary.builder()
+                    .file(file.getFileName().toString())
+                    .entity(entity)
+                    .status("SUCCESS")
+                    .rows(rows)
+                    .errors(errors)
+                    .elapsedMs(elapsedMs)
+                    .build();
+        }
+    }
+
+    private List<Range> split(FileChannel channel, long from) throws IOException {
+        long size = channel.size();
+        List<Range> ranges = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = start + rangeSize >= size ? size : nextLineStart(channel, start + rangeSize);
+            ranges.add(new Range(start, end));
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * Position just after the first '\n' at or after {@code position}, or the file size if there is none.
+     */
+    static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    static long countNewlines(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        long count = 0;
+        while (mapped.hasRemaining()) {
+            if (mapped.get() == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void parse(FileChannel channel, Range range, String entity, Consumer<CsvTokenizer> handler)
+            throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, range.start, range.end - range.start);
+        try (CsvTokenizer csv = new CsvTokenizer(
+                new InputStreamReader(new ByteBufferInputStream(mapped), StandardCharsets.UTF_8), ',', range.firstLine)) {
+            while (csv.next()) {
+                try {
+                    handler.accept(csv);
+                    range.rows++;
+                } catch (RuntimeException e) {
+                    range.errors++;
+                    log.warn("Failed to parse {} line {}: {} - {}", entity, csv.lineNumber(), csv.recordText(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading mapped ranges", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Reads a mapped range without copying it into an intermediate byte array first.
+     */
+    static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.booknest.etl.service.extract;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import com.booknest.etl.dto.OrderItemRawMessage;
+import com.booknest.etl.dto.OrderRawMessage;
+
+/**
+ * Maps the rows of the batch orders and order items CSV files, shared by the batch extract and the
+ * order/item join so both publish the same messages for the same row.
+ */
+final class OrderCsvMapper {
+
+    private OrderCsvMapper() {
+    }
+
+    /**
+     * The order on the current row of orders_source.csv, without items.
+     */
+    static OrderRawMessage order(CsvTokenizer csv) {
+        LocalDateTime createdAt = csv.dateTime(8);
+        return OrderRawMessage.builder()
+                .source("batch_csv_extract")
+                .orderId(csv.string(0))
+                .customerName(csv.string(1))
+                .customerEmail(csv.string(2))
+                .status(csv.string(3))
+                .paymentMethod(csv.string(4))
+                .totalAmount(orZero(csv.decimal(5)))
+                .discount(orZero(csv.decimal(6)))
+                .shippingFee(orZero(csv.decimal(7)))
+                .createdAt(createdAt == null ? OffsetDateTime.now() : createdAt.atOffset(ZoneOffset.UTC))
+                .extractedAt(OffsetDateTime.now())
+                .build();
+    }
+
+    /**
+     * The order id of the current row of order_items_source.csv.
+     */
+    static String itemOrderId(CsvTokenizer csv) {
+        return csv.string(0);
+    }
+
+    /**
+     * The item on the current row of order_items_source.csv, as published on its own.
+     */
+    static OrderItemRawMessage item(CsvTokenizer csv) {
+        return OrderItemRawMessage.builder()
+                .bookId(csv.string(1))
+                .quantity(csv.integer(2))
+                .unitPrice(csv.decimal(3))
+                .build();
+    }
+
+    // Items embedded in an order default missing quantity/price, the standalone item messages do not.
+    static OrderItemRawMessage embedded(OrderItemRawMessage item) {
+        return item.toBuilder()
+                .quantity(item.getQuantity() == null ? 0 : item.getQuantity())
+                .unitPrice(orZero(item.getUnitPrice()))
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
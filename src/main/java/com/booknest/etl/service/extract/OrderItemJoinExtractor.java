@@ -0,0 +1,382 @@
+package com.booknest.etl.service.extract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.booknest.etl.dto.OrderItemRawMessage;
+import com.booknest.etl.dto.OrderRawMessage;
+import com.booknest.etl.messaging.producer.OrderItemMessageProducer;
+import com.booknest.etl.messaging.producer.OrderMessageProducer;
+
+/**
+ * Extracts orders and order items while parsing each CSV file exactly once. The items file is read
+ * first: every item is published and appended to a binary spill file. If the items were sorted by
+ * order_id, the orders file is then merge-joined against the spill. Orders that cannot be merged (the
+ * items were unsorted, or an order arrives out of order) are spilled into hash partitions and joined
+ * one partition at a time, so memory is bounded by the largest partition rather than the item file.
+ */
+@Component
+public class OrderItemJoinExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemJoinExtractor.class);
+
+    private final OrderMessageProducer orderProducer;
+    private final OrderItemMessageProducer orderItemProducer;
+    private final int partitions;
+    private final Path spillDir;
+
+    public OrderItemJoinExtractor(OrderMessageProducer orderProducer,
+                                  OrderItemMessageProducer orderItemProducer,
+                                  @Value("${etl.extract.join-partitions:16}") int partitions,
+                                  @Value("${etl.extract.spill-dir:${java.io.tmpdir}}") String spillDir) {
+        this.orderProducer = orderProducer;
+        this.orderItemProducer = orderItemProducer;
+        this.partitions = partitions;
+        this.spillDir = Path.of(spillDir);
+    }
+
+    public enum Strategy { MERGE, HASH, MERGE_THEN_HASH }
+
+    @lombok.Value
+    public static class Result {
+        Strategy strategy;
+        int orders;
+        int items;
+        int spilledOrders;
+        int orderErrors;
+        int itemErrors;
+        long itemsMs;
+        long ordersMs;
+    }
+
+    private static final class KeyedItem {
+        final String orderId;
+        final OrderItemRawMessage item;
+
+        KeyedItem(String orderId, OrderItemRawMessage item) {
+            this.orderId = orderId;
+            this.item = item;
+        }
+    }
+
+    private static final class Counts {
+        int orders;
+        int items;
+        int spilledItems;
+        int spilledOrders;
+        int orderErrors;
+        int itemErrors;
+    }
+
+    public Result extract(Resource ordersResource, Resource itemsResource) throws IOException {
+        Path workDir = Files.createTempDirectory(spillDir, "order-join-");
+        try {
+            Counts counts = new Counts();
+            long start = System.nanoTime();
+            Path itemSpill = workDir.resolve("items.bin");
+            boolean itemsSorted = spillItems(itemsResource, itemSpill, counts);
+            long itemsDone = System.nanoTime();
+
+            int[] orderPartitionSizes = new int[partitions];
+            DataOutputStream[] orderPartitions = new DataOutputStream[partitions];
+            try {
+                mergeOrders(ordersResource, itemsSorted, itemSpill, counts, workDir, orderPartitions, orderPartitionSizes);
+            } finally {
+                closeAll(orderPartitions);
+            }
+            if (counts.spilledOrders > 0) {
+                hashJoin(itemSpill, counts, workDir, orderPartitionSizes);
+            }
+
+            Strategy strategy = !itemsSorted ? Strategy.HASH
+                    : counts.spilledOrders > 0 ? Strategy.MERGE_THEN_HASH : Strategy.MERGE;
+            Result result = new Result(strategy, counts.orders, counts.items, counts.spilledOrders,
+                    counts.orderErrors, counts.itemErrors, (itemsDone - start) / 1_000_000,
+                    (System.nanoTime() - itemsDone) / 1_000_000);
+            log.info("Joined {} orders with {} items from {} and {} in one pass ({}, {} orders spilled, {} errors)",
+                    result.getOrders(), result.getItems(), ordersResource.getFilename(), itemsResource.getFilename(),
+                    strategy, result.getSpilledOrders(), result.getOrderErrors() + result.getItemErrors());
+            return result;
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Publishes every item and appends it to {@code spill}. Returns whether the items were sorted by order_id.
+     */
+    private boolean spillItems(Resource resource, Path spill, Counts counts) throws IOException {
+        boolean sorted = true;
+        String previous = null;
+        try (CsvTokenizer csv = CsvTokenizer.open(resource.getInputStream());
+             DataOutputStream out = openSpill(spill)) {
+            csv.next(); // skip header
+            while (csv.next()) {
+                KeyedItem keyed;
+                try {
+                    keyed = new KeyedItem(OrderCsvMapper.itemOrderId(csv), OrderCsvMapper.item(csv));
+                } catch (RuntimeException e) {
+                    counts.itemErrors++;
+                    log.warn("Failed to parse order item line {}: {} - {}", csv.lineNumber(), csv.recordText(), e.getMessage());
+                    continue;
+                }
+                // An item that fails to publish on its own is still joined into its order.
+                try {
+                    orderItemProducer.sendToRaw(keyed.item);
+                    counts.items++;
+                } catch (RuntimeException e) {
+                    counts.itemErrors++;
+                    log.warn("Failed to publish order item line {}: {} - {}", csv.lineNumber(), csv.recordText(), e.getMessage());
+                }
+                writeItem(out, keyed);
+                counts.spilledItems++;
+                if (previous != null && keyed.orderId.compareTo(previous) < 0) {
+                    sorted = false;
+                }
+                previous = keyed.orderId;
+            }
+        }
+        log.info("Spilled {} order items from {} (sorted by order_id: {})", counts.spilledItems, resource.getFilename(), sorted);
+        return sorted;
+    }
+
+    /**
+     * Streams the orders file once. While the orders (and items) stay sorted each order is matched with
+     * the items under the spill cursor and published; from the first out-of-order order on, the rest
+     * go to the hash partitions.
+     */
+    private void mergeOrders(Resource resource, boolean itemsSorted, Path itemSpill, Counts counts, Path workDir,
+                             DataOutputStream[] orderPartitions, int[] orderPartitionSizes) throws IOException {
+        boolean merging = itemsSorted;
+        String previous = null;
+        List<OrderItemRawMessage> previousItems = Collections.emptyList();
+        int itemsRead = 0;
+        KeyedItem pending = null;
+
+        try (CsvTokenizer csv = CsvTokenizer.open(resource.getInputStream());
+             DataInputStream items = merging ? openSpillReader(itemSpill) : null) {
+            if (merging && itemsRead < counts.spilledItems) {
+                pending = readItem(items);
+                itemsRead++;
+            }
+            csv.next(); // skip header
+            while (csv.next()) {
+                OrderRawMessage order;
+                try {
+                    order = OrderCsvMapper.order(csv);
+                } catch (RuntimeException e) {
+                    counts.orderErrors++;
+                    log.warn("Failed to parse order line {}: {} - {}", csv.lineNumber(), csv.recordText(), e.getMessage());
+                    continue;
+                }
+                String orderId = order.getOrderId();
+                if (merging && previous != null && orderId.compareTo(previous) < 0) {
+                    merging = false;
+                    log.info("{} is not sorted by order_id at line {}, hash-joining the remaining orders",
+                            resource.getFilename(), csv.lineNumber());
+                }
+                if (!merging) {
+                    int partition = partition(orderId);
+                    if (orderPartitions[partition] == null) {
+                        orderPartitions[partition] = openSpill(workDir.resolve("orders-" + partition + ".bin"));
+                    }
+                    writeOrder(orderPartitions[partition], order);
+                    orderPartitionSizes[partition]++;
+                    counts.spilledOrders++;
+                    continue;
+                }
+
+                List<OrderItemRawMessage> matched;
+                if (orderId.equals(previous)) {
+                    matched = previousItems;
+                } else {
+                    while (pending != null && pending.orderId.compareTo(orderId) < 0) {
+                        pending = itemsRead < counts.spilledItems ? readItem(items) : null;
+                        itemsRead++;
+                    }
+                    matched = new ArrayList<>();
+                    while (pending != null && pending.orderId.equals(orderId)) {
+                        matched.add(OrderCsvMapper.embedded(pending.item));
+                        pending = itemsRead < counts.spilledItems ? readItem(items) : null;
+                        itemsRead++;
+                    }
+                }
+                publishOrder(order.toBuilder().items(matched).build(), counts);
+                previous = orderId;
+                previousItems = matched;
+            }
+        }
+    }
+
+    /**
+     * Partitions the item spill the same way as the spilled orders, then joins partition by partition
+     * with an in-memory map of that partition's items only.
+     */
+    private void hashJoin(Path itemSpill, Counts counts, Path workDir, int[] orderPartitionSizes) throws IOException {
+        int[] itemPartitionSizes = new int[partitions];
+        DataOutputStream[] itemPartitions = new DataOutputStream[partitions];
+        try (DataInputStream in = openSpillReader(itemSpill)) {
+            for (int i = 0; i < counts.spilledItems; i++) {
+                KeyedItem keyed = readItem(in);
+                int partition = partition(keyed.orderId);
+                if (orderPartitionSizes[partition] == 0) {
+                    continue; // no spilled order can match
+                }
+                if (itemPartitions[partition] == null) {
+                    itemPartitions[partition] = openSpill(workDir.resolve("items-" + partition + ".bin"));
+                }
+                writeItem(itemPartitions[partition], keyed);
+                itemPartitionSizes[partition]++;
+            }
+        } finally {
+            closeAll(itemPartitions);
+        }
+
+        for (int partition = 0; partition < partitions; partition++) {
+            if (orderPartitionSizes[partition] == 0) {
+                continue;
+            }
+            Map<String, List<OrderItemRawMessage>> itemsByOrder = new HashMap<>();
+            if (itemPartitionSizes[partition] > 0) {
+                try (DataInputStream in = openSpillReader(workDir.resolve("items-" + partition + ".bin"))) {
+                    for (int i = 0; i < itemPartitionSizes[partition]; i++) {
+                        KeyedItem keyed = readItem(in);
+                        itemsByOrder.computeIfAbsent(keyed.orderId, k -> new ArrayList<>()).add(OrderCsvMapper.embedded(keyed.item));
+                    }
+                }
+            }
+            try (DataInputStream in = openSpillReader(workDir.resolve("orders-" + partition + ".bin"))) {
+                for (int i = 0; i < orderPartitionSizes[partition]; i++) {
+                    OrderRawMessage order = readOrder(in);
+                    publishOrder(order.toBuilder()
+                            .items(itemsByOrder.getOrDefault(order.getOrderId(), Collections.emptyList()))
+                            .build(), counts);
+                }
+            }
+        }
+    }
+
+    private void publishOrder(OrderRawMessage order, Counts counts) {
+        try {
+            orderProducer.sendToRaw(order);
+            counts.orders++;
+        } catch (RuntimeException e) {
+            counts.orderErrors++;
+            log.warn("Failed to publish order {}: {}", order.getOrderId(), e.getMessage());
+        }
+    }
+
+    private int partition(String orderId) {
+        return Math.floorMod(orderId.hashCode(), partitions);
+    }
+
+    private static void writeItem(DataOutputStream out, KeyedItem keyed) throws IOException {
+        out.writeUTF(keyed.orderId);
+        writeNullable(out, keyed.item.getBookId());
+        writeNullable(out, keyed.item.getQuantity() == null ? null : keyed.item.getQuantity().toString());
+        writeNullable(out, keyed.item.getUnitPrice() == null ? null : keyed.item.getUnitPrice().toString());
+    }
+
+    private static KeyedItem readItem(DataInputStream in) throws IOException {
+        String orderId = in.readUTF();
+        String bookId = readNullable(in);
+        String quantity = readNullable(in);
+        String unitPrice = readNullable(in);
+        return new KeyedItem(orderId, OrderItemRawMessage.builder()
+                .bookId(bookId)
+                .quantity(quantity == null ? null : Integer.valueOf(quantity))
+                .unitPrice(unitPrice == null ? null : new BigDecimal(unitPrice))
+                .build());
+    }
+
+    private static void writeOrder(DataOutputStream out, OrderRawMessage order) throws IOException {
+        writeNullable(out, order.getSource());
+        out.writeUTF(order.getOrderId());
+        writeNullable(out, order.getCustomerName());
+        writeNullable(out, order.getCustomerEmail());
+        writeNullable(out, order.getStatus());
+        writeNullable(out, order.getPaymentMethod());
+        out.writeUTF(order.getTotalAmount().toString());
+        out.writeUTF(order.getDiscount().toString());
+        out.writeUTF(order.getShippingFee().toString());
+        out.writeUTF(order.getCreatedAt().toString());
+        out.writeUTF(order.getExtractedAt().toString());
+    }
+
+    private static OrderRawMessage readOrder(DataInputStream in) throws IOException {
+        return OrderRawMessage.builder()
+                .source(readNullable(in))
+                .orderId(in.readUTF())
+                .customerName(readNullable(in))
+                .customerEmail(readNullable(in))
+                .status(readNullable(in))
+                .paymentMethod(readNullable(in))
+                .totalAmount(new BigDecimal(in.readUTF()))
+                .discount(new BigDecimal(in.readUTF()))
+                .shippingFee(new BigDecimal(in.readUTF()))
+                .createdAt(OffsetDateTime.parse(in.readUTF()))
+                .extractedAt(OffsetDateTime.parse(in.readUTF()))
+                .build();
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static DataOutputStream openSpill(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+    }
+
+    private static DataInputStream openSpillReader(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+    }
+
+    private static void closeAll(DataOutputStream[] streams) throws IOException {
+        for (DataOutputStream stream : streams) {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Collections.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not delete spill directory {}: {}", dir, e.getMessage());
+        }
+    }
+}
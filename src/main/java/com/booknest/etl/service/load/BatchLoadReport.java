@@ -0,0 +1,50 @@
+package com.booknest.etl.service.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Row counts and per-chunk timings of one staging -> source_db load. A row read from staging but not
+ * written (unresolved reference or rejected by source_db) counts as skipped.
+ */
+@Getter
+public class BatchLoadReport {
+
+    private final String entity;
+    private final List<Long> chunkMillis = new ArrayList<>();
+    private int rows;
+    private int loaded;
+    private int skipped;
+
+    public BatchLoadReport(String entity) {
+        this.entity = entity;
+    }
+
+    void addChunk(int chunkRows, int chunkLoaded, long elapsedNanos) {
+        rows += chunkRows;
+        loaded += chunkLoaded;
+        skipped += chunkRows - chunkLoaded;
+        chunkMillis.add(elapsedNanos / 1_000_000);
+    }
+
+    public int getChunks() {
+        return chunkMillis.size();
+    }
+
+    public long getTotalMillis() {
+        return chunkMillis.stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getSlowestChunkMillis() {
+        return chunkMillis.isEmpty() ? 0 : Collections.max(chunkMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d/%d rows loaded (%d skipped) in %d chunks, %d ms total, slowest chunk %d ms",
+                entity, loaded, rows, skipped, getChunks(), getTotalMillis(), getSlowestChunkMillis());
+    }
+}
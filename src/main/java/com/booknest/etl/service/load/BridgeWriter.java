@@ -0,0 +1,124 @@
+package com.booknest.etl.service.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the many-to-many link rows of a load chunk (book-author, book-category, user-role). Links
+ * that already exist are filtered out with one lookup per bridge table, and the rest go out as
+ * multi-row {@code INSERT IGNORE ... VALUES (?, ?), (?, ?), ...} statements.
+ */
+@Component
+public class BridgeWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(BridgeWriter.class);
+
+    public enum Bridge {
+        BOOK_AUTHOR("sach_tac_gia", "ma_sach", "ma_tac_gia"),
+        BOOK_CATEGORY("sach_the_loai", "ma_sach", "ma_the_loai"),
+        USER_ROLE("nguoi_dung_vai_tro", "ma_nguoi_dung", "ma_vai_tro");
+
+        private final String table;
+        private final String ownerColumn;
+        private final String targetColumn;
+
+        Bridge(String table, String ownerColumn, String targetColumn) {
+            this.table = table;
+            this.ownerColumn = ownerColumn;
+            this.targetColumn = targetColumn;
+        }
+    }
+
+    /**
+     * Links collected for one chunk. Duplicate pairs are only kept once.
+     */
+    public static class Links {
+        private final Map<Bridge, Set<Long>> pairs = new EnumMap<>(Bridge.class);
+
+        public void add(Bridge bridge, int ownerId, int targetId) {
+            pairs.computeIfAbsent(bridge, b -> new LinkedHashSet<>()).add(pack(ownerId, targetId));
+        }
+    }
+
+    private final JdbcTemplate sourceJdbcTemplate;
+
+    @Value("${etl.load.batch-size:1000}")
+    private int rowsPerStatement;
+
+    public BridgeWriter(@Qualifier("sourceJdbcTemplate") JdbcTemplate sourceJdbcTemplate) {
+        this.sourceJdbcTemplate = sourceJdbcTemplate;
+    }
+
+    /**
+     * Inserts the links that are not in source_db yet and returns how many were written.
+     */
+    public int write(Links links) {
+        int written = 0;
+        for (Map.Entry<Bridge, Set<Long>> entry : links.pairs.entrySet()) {
+            Bridge bridge = entry.getKey();
+            Set<Long> pending = new LinkedHashSet<>(entry.getValue());
+            int requested = pending.size();
+            pending.removeAll(existingLinks(bridge, pending));
+            written += insert(bridge, new ArrayList<>(pending));
+            log.debug("{}: {} links requested, {} already present, {} inserted",
+                    bridge.table, requested, requested - pending.size(), pending.size());
+        }
+        return written;
+    }
+
+    private Set<Long> existingLinks(Bridge bridge, Set<Long> pairs) {
+        List<Integer> owners = pairs.stream().map(BridgeWriter::owner).distinct().toList();
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < owners.size(); from += rowsPerStatement) {
+            List<Integer> chunk = owners.subList(from, Math.min(from + rowsPerStatement, owners.size()));
+            sourceJdbcTemplate.query(
+                    "SELECT " + bridge.ownerColumn + ", " + bridge.targetColumn + " FROM source_db." + bridge.table
+                            + " WHERE " + bridge.ownerColumn + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    rs -> {
+                        existing.add(pack(rs.getInt(1), rs.getInt(2)));
+                    }, chunk.toArray());
+        }
+        return existing;
+    }
+
+    private int insert(Bridge bridge, List<Long> pairs) {
+        int written = 0;
+        for (int from = 0; from < pairs.size(); from += rowsPerStatement) {
+            List<Long> chunk = pairs.subList(from, Math.min(from + rowsPerStatement, pairs.size()));
+            String sql = "INSERT IGNORE INTO source_db." + bridge.table + " (" + bridge.ownerColumn + ", " + bridge.targetColumn
+                    + ") VALUES " + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[2 * i] = owner(chunk.get(i));
+                args[2 * i + 1] = target(chunk.get(i));
+            }
+            written += sourceJdbcTemplate.update(sql, args);
+        }
+        return written;
+    }
+
+    private static long pack(int ownerId, int targetId) {
+        return ((long) ownerId << 32) | (targetId & 0xFFFFFFFFL);
+    }
+
+    private static int owner(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    private static int target(long pair) {
+        return (int) pair;
+    }
+}
@@ -0,0 +1,66 @@
+package com.booknest.etl.service.load;
+
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs one load chunk in its own source_db transaction, so locks are only held for a chunk and a
+ * failure rolls back just that chunk. A chunk that loses a deadlock or times out waiting for a lock
+ * is retried with a short backoff. When the caller already has a transaction (a quality consumer
+ * loading its keys) the chunk simply joins it and is not retried, because the outer transaction is
+ * already rolled back.
+ */
+@Component
+public class ChunkTransactionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkTransactionExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${etl.load.chunk-retries:3}")
+    private int maxRetries;
+
+    @Value("${etl.load.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    public ChunkTransactionExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public int execute(String entity, IntSupplier chunkWork) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return chunkWork.getAsInt();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer loaded = transactionTemplate.execute(status -> chunkWork.getAsInt());
+                return loaded != null ? loaded : 0;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt > maxRetries) {
+                    log.error("{} chunk failed after {} attempts: {}", entity, attempt, e.getMessage());
+                    throw e;
+                }
+                log.warn("{} chunk hit a lock conflict (attempt {}/{}), retrying: {}", entity, attempt, maxRetries + 1,
+                        e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry chunk", e);
+        }
+    }
+}
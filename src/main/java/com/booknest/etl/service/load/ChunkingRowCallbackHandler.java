@@ -0,0 +1,47 @@
+package com.booknest.etl.service.load;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps rows as they are read and hands them on in chunks of a fixed size; {@link #flush()} emits the
+ * last partial chunk once the result set is exhausted.
+ */
+class ChunkingRowCallbackHandler<T> implements RowCallbackHandler {
+
+    private final RowMapper<T> rowMapper;
+    private final int chunkSize;
+    private final Consumer<List<T>> chunkConsumer;
+    private List<T> buffer;
+    private int rowNum;
+
+    ChunkingRowCallbackHandler(RowMapper<T> rowMapper, int chunkSize, Consumer<List<T>> chunkConsumer) {
+        this.rowMapper = rowMapper;
+        this.chunkSize = chunkSize;
+        this.chunkConsumer = chunkConsumer;
+        this.buffer = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        buffer.add(rowMapper.mapRow(rs, rowNum++));
+        if (buffer.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<T> chunk = buffer;
+        buffer = new ArrayList<>(chunkSize);
+        chunkConsumer.accept(chunk);
+    }
+}
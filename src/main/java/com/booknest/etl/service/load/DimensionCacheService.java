@@ -0,0 +1,214 @@
+package com.booknest.etl.service.load;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory name -> id maps for the small source_db dimension tables (tac_gia, the_loai, vai_tro).
+ * Hits are served from memory; misses of a chunk are inserted with one batch while holding the
+ * dimension's lock, so concurrent consumers never create the same name twice.
+ */
+@Service
+public class DimensionCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(DimensionCacheService.class);
+
+    public enum Dimension {
+        AUTHOR("tac_gia", "ten_tac_gia", "ma_tac_gia"),
+        CATEGORY("the_loai", "ten_the_loai", "ma_the_loai"),
+        ROLE("vai_tro", "ten_vai_tro", "ma_vai_tro");
+
+        private final String table;
+        private final String nameColumn;
+        private final String idColumn;
+
+        Dimension(String table, String nameColumn, String idColumn) {
+            this.table = table;
+            this.nameColumn = nameColumn;
+            this.idColumn = idColumn;
+        }
+    }
+
+    private final JdbcTemplate sourceJdbcTemplate;
+    private final JdbcBatchUpserter batchUpserter;
+    private final Map<Dimension, Map<String, Integer>> caches = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Object> locks = new EnumMap<>(Dimension.class);
+    private final Set<Dimension> warmed = ConcurrentHashMap.newKeySet();
+    private final Map<Dimension, Counter> hits = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Counter> misses = new EnumMap<>(Dimension.class);
+
+    public DimensionCacheService(@Qualifier("sourceJdbcTemplate") JdbcTemplate sourceJdbcTemplate,
+                                 JdbcBatchUpserter batchUpserter,
+                                 MeterRegistry meterRegistry) {
+        this.sourceJdbcTemplate = sourceJdbcTemplate;
+        this.batchUpserter = batchUpserter;
+        for (Dimension dimension : Dimension.values()) {
+            caches.put(dimension, new ConcurrentHashMap<>());
+            locks.put(dimension, new Object());
+            String tag = dimension.name().toLowerCase();
+            hits.put(dimension, meterRegistry.counter("etl.dimension.cache", "dimension", tag, "result", "hit"));
+            misses.put(dimension, meterRegistry.counter("etl.dimension.cache", "dimension", tag, "result", "miss"));
+        }
+    }
+
+    /**
+     * Reloads the given dimensions from source_db. Called at the start of a full load; keyed loads
+     * warm lazily on first use.
+     */
+    public void warmUp(Dimension... dimensions) {
+        for (Dimension dimension : dimensions) {
+            warm(dimension);
+        }
+    }
+
+    /**
+     * Resolves every name to its id, creating the missing ones. Names that cannot be resolved are
+     * absent from the returned map.
+     */
+    public Map<String, Integer> resolve(Dimension dimension, Collection<String> names) {
+        if (!warmed.contains(dimension)) {
+            warm(dimension);
+        }
+        Map<String, Integer> cache = caches.get(dimension);
+        Map<String, Integer> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            Integer id = cache.get(name);
+            if (id != null) {
+                resolved.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+        hits.get(dimension).increment(resolved.size());
+        if (!missing.isEmpty()) {
+            misses.get(dimension).increment(missing.size());
+            resolved.putAll(createMissing(dimension, missing));
+        }
+        return resolved;
+    }
+
+    public Map<String, Map<String, Double>> stats() {
+        Map<String, Map<String, Double>> stats = new LinkedHashMap<>();
+        for (Dimension dimension : Dimension.values()) {
+            Map<String, Double> counts = new LinkedHashMap<>();
+            counts.put("size", (double) caches.get(dimension).size());
+            counts.put("hits", hits.get(dimension).count());
+            counts.put("misses", misses.get(dimension).count());
+            stats.put(dimension.name().toLowerCase(), counts);
+        }
+        return stats;
+    }
+
+    private void warm(Dimension dimension) {
+        synchronized (locks.get(dimension)) {
+            Map<String, Integer> cache = caches.get(dimension);
+            cache.clear();
+            sourceJdbcTemplate.query(
+                    "SELECT " + dimension.nameColumn + ", MIN(" + dimension.idColumn + ") FROM source_db." + dimension.table
+                            + " GROUP BY " + dimension.nameColumn,
+                    rs -> {
+                        cache.put(rs.getString(1), rs.getInt(2));
+                    });
+            warmed.add(dimension);
+            log.info("Warmed {} cache with {} entries", dimension.table, cache.size());
+        }
+    }
+
+    private Map<String, Integer> createMissing(Dimension dimension, Set<String> names) {
+        Map<String, Integer> cache = caches.get(dimension);
+        Map<String, Integer> created = new HashMap<>();
+        synchronized (locks.get(dimension)) {
+            List<String> toInsert = new ArrayList<>();
+            for (String name : names) {
+                Integer id = cache.get(name);
+                if (id != null) {
+                    created.put(name, id);
+                } else {
+                    toInsert.add(name);
+                }
+            }
+            if (toInsert.isEmpty()) {
+                return created;
+            }
+
+            // Another loader (or process) may have inserted the names since the cache was warmed.
+            Map<String, Integer> existing = selectIds(dimension, toInsert);
+            List<String> reallyNew = toInsert.stream().filter(name -> !existing.containsKey(name)).toList();
+            batchUpserter.batchUpsert(sourceJdbcTemplate,
+                    "INSERT IGNORE INTO source_db." + dimension.table + " (" + dimension.nameColumn + ") VALUES (?)",
+                    reallyNew, (ps, name) -> ps.setString(1, name));
+            Map<String, Integer> inserted = reallyNew.isEmpty() ? Map.of() : selectIds(dimension, reallyNew);
+
+            List<String> added = new ArrayList<>();
+            for (String name : toInsert) {
+                Integer id = existing.containsKey(name) ? existing.get(name) : inserted.get(name);
+                if (id == null) {
+                    log.warn("Could not resolve {} '{}'", dimension.table, name);
+                    continue;
+                }
+                cache.put(name, id);
+                created.put(name, id);
+                if (!existing.containsKey(name)) {
+                    added.add(name);
+                }
+            }
+            evictOnRollback(dimension, added);
+        }
+        return created;
+    }
+
+    private Map<String, Integer> selectIds(Dimension dimension, List<String> names) {
+        // Names compare case-insensitively in MySQL, so match the returned rows the same way.
+        Map<String, Integer> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sourceJdbcTemplate.query(
+                "SELECT " + dimension.nameColumn + ", MIN(" + dimension.idColumn + ") FROM source_db." + dimension.table
+                        + " WHERE " + dimension.nameColumn + " IN (" + String.join(", ", Collections.nCopies(names.size(), "?"))
+                        + ") GROUP BY " + dimension.nameColumn,
+                rs -> {
+                    ids.put(rs.getString(1), rs.getInt(2));
+                }, names.toArray());
+        return ids;
+    }
+
+    /**
+     * Rows created inside a source_db transaction disappear on rollback, so their ids must not
+     * outlive it in the cache.
+     */
+    private void evictOnRollback(Dimension dimension, List<String> added) {
+        if (added.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    Map<String, Integer> cache = caches.get(dimension);
+                    added.forEach(cache::remove);
+                    log.info("Evicted {} uncommitted {} entries", added.size(), dimension.table);
+                }
+            }
+        });
+    }
+}
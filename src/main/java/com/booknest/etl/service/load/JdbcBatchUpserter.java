@@ -0,0 +1,130 @@
+package com.booknest.etl.service.load;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits a load into chunks of {@code etl.load.commit-interval} rows, each written and committed in its
+ * own transaction, and sends the rows of a chunk as JDBC batches of {@code etl.load.batch-size}. With
+ * {@code rewriteBatchedStatements=true} on the connection URL the MySQL driver sends a batch of
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} as one multi-row statement.
+ */
+@Component
+public class JdbcBatchUpserter {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcBatchUpserter.class);
+
+    private final ChunkTransactionExecutor chunkTransactions;
+
+    @Value("${etl.load.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${etl.load.commit-interval:5000}")
+    private int commitInterval;
+
+    public JdbcBatchUpserter(ChunkTransactionExecutor chunkTransactions) {
+        this.chunkTransactions = chunkTransactions;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Runs {@code chunkWriter} for every chunk of {@code rows} and records how long each chunk took.
+     * The writer returns how many rows of the chunk were actually loaded.
+     */
+    public <T> BatchLoadReport loadInChunks(String entity, List<T> rows, ToIntFunction<List<T>> chunkWriter) {
+        BatchLoadReport report = new BatchLoadReport(entity);
+        for (int from = 0; from < rows.size(); from += commitInterval) {
+            writeChunk(report, rows.subList(from, Math.min(from + commitInterval, rows.size())), chunkWriter);
+        }
+        log.info("Batch load {}", report);
+        return report;
+    }
+
+    /**
+     * Like {@link #loadInChunks} but reads the rows with {@code sql} and writes each chunk as soon as it
+     * has been read, instead of materializing the whole result first. Combined with a streaming
+     * {@code reader} (fetch size {@code Integer.MIN_VALUE}) only one chunk is held in memory.
+     */
+    public <T> BatchLoadReport streamInChunks(String entity, JdbcTemplate reader, String sql, Object[] args,
+                                              RowMapper<T> rowMapper, ToIntFunction<List<T>> chunkWriter) {
+        BatchLoadReport report = new BatchLoadReport(entity);
+        ChunkingRowCallbackHandler<T> handler =
+                new ChunkingRowCallbackHandler<>(rowMapper, commitInterval, chunk -> writeChunk(report, chunk, chunkWriter));
+        try {
+            reader.query(sql, handler, args);
+            handler.flush();
+        } catch (RuntimeException e) {
+            log.error("Batch load of {} stopped after {} committed chunks; the next run resumes from the last committed chunk",
+                    entity, report.getChunks());
+            throw e;
+        }
+        log.info("Batch load {}", report);
+        return report;
+    }
+
+    private <T> void writeChunk(BatchLoadReport report, List<T> chunk, ToIntFunction<List<T>> chunkWriter) {
+        long start = System.nanoTime();
+        int loaded = chunkTransactions.execute(report.getEntity(), () -> chunkWriter.applyAsInt(chunk));
+        long elapsed = System.nanoTime() - start;
+        report.addChunk(chunk.size(), loaded, elapsed);
+        log.debug("{} chunk #{}: {}/{} rows in {} ms", report.getEntity(), report.getChunks(), loaded, chunk.size(),
+                elapsed / 1_000_000);
+    }
+
+    /**
+     * Writes {@code rows} in batches of {@code etl.load.batch-size}. If a batch is rejected the rows
+     * are retried one by one so a single bad row does not drop the rest of the chunk. Lock conflicts
+     * are rethrown, since MySQL has already rolled back the chunk's transaction. Returns the number of
+     * rows written.
+     */
+    public <T> int batchUpsert(JdbcTemplate jdbcTemplate, String sql, List<T> rows,
+                               ParameterizedPreparedStatementSetter<T> setter) {
+        return batchUpsert(jdbcTemplate, sql, rows, setter, row -> { });
+    }
+
+    /**
+     * Like {@link #batchUpsert(JdbcTemplate, String, List, ParameterizedPreparedStatementSetter)}, handing
+     * every row that could not be written to {@code failedRow}.
+     */
+    public <T> int batchUpsert(JdbcTemplate jdbcTemplate, String sql, List<T> rows,
+                               ParameterizedPreparedStatementSetter<T> setter, Consumer<T> failedRow) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+            return rows.size();
+        } catch (PessimisticLockingFailureException lockError) {
+            throw lockError;
+        } catch (DataAccessException batchError) {
+            log.warn("Batch of {} rows failed ({}), retrying row by row", rows.size(), batchError.getMessage());
+            int written = 0;
+            for (T row : rows) {
+                try {
+                    jdbcTemplate.update(sql, ps -> setter.setValues(ps, row));
+                    written++;
+                } catch (PessimisticLockingFailureException lockError) {
+                    throw lockError;
+                } catch (DataAccessException rowError) {
+                    log.error("Error loading row {}: {}", row, rowError.getMessage());
+                    failedRow.accept(row);
+                }
+            }
+            return written;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.booknest.etl.service.load;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Resolves source_db natural keys (customer email, order external id, book title) to surrogate ids
+ * with one {@code IN (...)} query per chunk, memoizing the results in a bounded LRU cache per key type.
+ */
+@Component
+public class KeyResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyResolver.class);
+
+    public enum KeyType {
+        CUSTOMER_EMAIL("nguoi_dung", "email", "ma_nguoi_dung"),
+        ORDER_EXTERNAL_ID("don_hang", "external_order_id", "ma_don_hang"),
+        // sach has no unique title, a title resolves to the most recently loaded book.
+        BOOK_TITLE("sach", "ten_sach", "ma_sach");
+
+        private final String table;
+        private final String keyColumn;
+        private final String idColumn;
+
+        KeyType(String table, String keyColumn, String idColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.idColumn = idColumn;
+        }
+    }
+
+    private final JdbcTemplate sourceJdbcTemplate;
+    private final int chunkSize;
+    private final Map<KeyType, Map<String, Integer>> caches = new EnumMap<>(KeyType.class);
+
+    public KeyResolver(@Qualifier("sourceJdbcTemplate") JdbcTemplate sourceJdbcTemplate,
+                       @Value("${etl.load.batch-size:1000}") int chunkSize,
+                       @Value("${etl.load.key-cache-size:10000}") int cacheSize) {
+        this.sourceJdbcTemplate = sourceJdbcTemplate;
+        this.chunkSize = chunkSize;
+        for (KeyType type : KeyType.values()) {
+            caches.put(type, Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > cacheSize;
+                }
+            }));
+        }
+    }
+
+    /**
+     * Returns the ids of the given keys; keys that do not exist in source_db are absent from the map.
+     */
+    public Map<String, Integer> resolve(KeyType type, Collection<String> keys) {
+        Map<String, Integer> cache = caches.get(type);
+        Map<String, Integer> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : distinct(keys)) {
+            Integer id = cache.get(key);
+            if (id != null) {
+                resolved.put(key, id);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Integer> loaded = query(type, misses);
+            remember(type, loaded);
+            resolved.putAll(loaded);
+        }
+        return resolved;
+    }
+
+    /**
+     * Like {@link #resolve} but always asks source_db, for keys whose id may just have changed
+     * (a book title that was inserted again).
+     */
+    public Map<String, Integer> resolveFresh(KeyType type, Collection<String> keys) {
+        Map<String, Integer> loaded = query(type, distinct(keys));
+        remember(type, loaded);
+        return loaded;
+    }
+
+    public void remember(KeyType type, Map<String, Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> cache = caches.get(type);
+        cache.putAll(ids);
+        // Ids read inside a source_db transaction may belong to rows that are rolled back.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> keys = new ArrayList<>(ids.keySet());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        keys.forEach(cache::remove);
+                    }
+                }
+            });
+        }
+    }
+
+    public void invalidate(KeyType type) {
+        caches.get(type).clear();
+        log.debug("Cleared {} key cache", type);
+    }
+
+    private Map<String, Integer> query(KeyType type, List<String> keys) {
+        Map<String, Integer> byDbKey = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<String> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            String sql = "SELECT " + type.keyColumn + ", MAX(" + type.idColumn + ") FROM source_db." + type.table
+                    + " WHERE " + type.keyColumn + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                    + ") GROUP BY " + type.keyColumn;
+            sourceJdbcTemplate.query(sql, rs -> {
+                byDbKey.put(rs.getString(1), rs.getInt(2));
+            }, chunk.toArray());
+        }
+        // MySQL compares the keys case-insensitively; report them back under the caller's spelling.
+        Map<String, Integer> ids = new HashMap<>();
+        for (String key : keys) {
+            Integer id = byDbKey.get(key);
+            if (id != null) {
+                ids.put(key, id);
+            }
+        }
+        return ids;
+    }
+
+    private static List<String> distinct(Collection<String> keys) {
+        return keys.stream().filter(Objects::nonNull).distinct().toList();
+    }
+}
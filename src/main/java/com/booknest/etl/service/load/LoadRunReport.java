@@ -0,0 +1,35 @@
+package com.booknest.etl.service.load;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of one scheduled staging -> source_db load: per-entity counts and timings plus the chain of
+ * dependent loads that determined the run's duration.
+ */
+@Value
+@Builder
+public class LoadRunReport {
+
+    @Value
+    @Builder
+    public static class Step {
+        String entity;
+        List<String> dependsOn;
+        String status;
+        int loaded;
+        long startedAtMs;
+        long durationMs;
+        String error;
+    }
+
+    Map<String, Step> steps;
+    int totalLoaded;
+    long elapsedMs;
+    long criticalPathMs;
+    List<String> criticalPath;
+    boolean success;
+}
@@ -1,15 +1,30 @@
 package com.booknest.etl.service.load;
 
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToIntFunction;
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import com.booknest.etl.dto.LoadWatermark;
+import com.booknest.etl.repository.staging.LoadWatermarkRepository;
+import com.booknest.etl.service.load.BridgeWriter.Bridge;
+import com.booknest.etl.service.load.DimensionCacheService.Dimension;
+import com.booknest.etl.service.load.KeyResolver.KeyType;
+import com.booknest.etl.service.staging.ChangeDetectionService;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,26 +35,64 @@ public class SourceDbLoaderService {
 
     private final JdbcTemplate sourceJdbcTemplate;
     private final JdbcTemplate stagingJdbcTemplate;
+    private final JdbcTemplate stagingStreamingJdbcTemplate;
+    private final JdbcBatchUpserter batchUpserter;
+    private final DimensionCacheService dimensionCache;
+    private final KeyResolver keyResolver;
+    private final LoadWatermarkRepository watermarkRepository;
+    private final BridgeWriter bridgeWriter;
+    private final ChangeDetectionService changeDetectionService;
+
+    @Value("${etl.load.streaming-read:true}")
+    private boolean streamingRead;
 
     public SourceDbLoaderService(
             @Qualifier("sourceJdbcTemplate") JdbcTemplate sourceJdbcTemplate,
-            @Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
+            @Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate,
+            @Qualifier("stagingStreamingJdbcTemplate") JdbcTemplate stagingStreamingJdbcTemplate,
+            JdbcBatchUpserter batchUpserter,
+            DimensionCacheService dimensionCache,
+            KeyResolver keyResolver,
+            LoadWatermarkRepository watermarkRepository,
+            BridgeWriter bridgeWriter,
+            ChangeDetectionService changeDetectionService) {
         this.sourceJdbcTemplate = sourceJdbcTemplate;
         this.stagingJdbcTemplate = stagingJdbcTemplate;
+        this.stagingStreamingJdbcTemplate = stagingStreamingJdbcTemplate;
+        this.batchUpserter = batchUpserter;
+        this.dimensionCache = dimensionCache;
+        this.keyResolver = keyResolver;
+        this.watermarkRepository = watermarkRepository;
+        this.bridgeWriter = bridgeWriter;
+        this.changeDetectionService = changeDetectionService;
     }
 
 
-    @Transactional
     public int loadCustomersToSource() {
         log.info("Loading validated customers from staging_db to source_db...");
+        dimensionCache.warmUp(Dimension.ROLE);
+        return writeCustomers(deltaFilter("customer_key"), deltaArgs("customers"), "customers");
+    }
 
+    /**
+     * Loads only the given staging customers, so a consumer pushes the record it just validated
+     * instead of re-upserting the whole stg_customers table.
+     */
+    public int loadCustomers(Collection<String> customerKeys) {
+        if (customerKeys == null || customerKeys.isEmpty()) {
+            return 0;
+        }
+        return writeCustomers(" AND customer_key IN (" + placeholders(customerKeys.size()) + ")", customerKeys.toArray(), null);
+    }
+
+    private BatchLoadReport streamCustomers(String filter, Object[] args, ToIntFunction<List<CustomerStaging>> chunkWriter) {
         String selectSql = """
-                SELECT customer_key, full_name, email, phone, roles, status
+                SELECT customer_key, full_name, email, phone, roles, status, loaded_at
                 FROM staging_db.stg_customers
                 WHERE quality_status = 'VALIDATED'
-                """;
+                """ + filter;
 
-        List<CustomerStaging> customers = stagingJdbcTemplate.query(selectSql, (rs, rowNum) -> {
+        return batchUpserter.streamInChunks("customers", stagingReader(), selectSql, args, (rs, rowNum) -> {
             CustomerStaging c = new CustomerStaging();
             c.customerKey = rs.getString("customer_key");
             c.fullName = rs.getString("full_name");
@@ -47,72 +100,79 @@ public class SourceDbLoaderService {
             c.phone = rs.getString("phone");
             c.roles = rs.getString("roles");
             c.status = rs.getString("status");
+            c.loadedAt = rs.getTimestamp("loaded_at");
             return c;
-        });
+        }, chunkWriter);
+    }
+
+    private int writeCustomers(String filter, Object[] args, String watermarkEntity) {
+        String upsertUserSql = """
+                INSERT INTO source_db.nguoi_dung (ho_ten, email, sdt, mat_khau_hash, trang_thai, ngay_tao)
+                VALUES (?, ?, ?, 'default_hash', ?, NOW())
+                ON DUPLICATE KEY UPDATE
+                    ho_ten = VALUES(ho_ten),
+                    sdt = VALUES(sdt),
+                    trang_thai = VALUES(trang_thai)
+                """;
 
-        int loaded = 0;
-        for (CustomerStaging customer : customers) {
-            try {
-                String upsertUserSql = """
-                        INSERT INTO source_db.nguoi_dung (ho_ten, email, sdt, mat_khau_hash, trang_thai, ngay_tao)
-                        VALUES (?, ?, ?, 'default_hash', ?, NOW())
-                        ON DUPLICATE KEY UPDATE
-                            ho_ten = VALUES(ho_ten),
-                            sdt = VALUES(sdt),
-                            trang_thai = VALUES(trang_thai),
-                            ngay_cap_nhat = NOW()
-                        """;
-
-                sourceJdbcTemplate.update(upsertUserSql,
-                        customer.fullName,
-                        customer.email,
-                        customer.phone,
-                        mapStatus(customer.status)
-                );
-
-                Integer userId = sourceJdbcTemplate.queryForObject(
-                        "SELECT ma_nguoi_dung FROM source_db.nguoi_dung WHERE email = ?",
-                        Integer.class,
-                        customer.email
-                );
-
-                if (customer.roles != null && !customer.roles.isEmpty() && userId != null) {
-                    String[] roleNames = customer.roles.split("[,|]");
-                    for (String roleName : roleNames) {
-                        String trimmedRole = roleName.trim();
-                        if (!trimmedRole.isEmpty()) {
-                            Integer roleId = getOrCreateRole(trimmedRole);
-                            if (roleId != null) {
-                                sourceJdbcTemplate.update(
-                                        "INSERT IGNORE INTO source_db.nguoi_dung_vai_tro (ma_nguoi_dung, ma_vai_tro) VALUES (?, ?)",
-                                        userId, roleId
-                                );
-                            }
-                        }
+        BatchLoadReport report = streamCustomers(filter, args, chunk -> {
+            List<List<String>> notLoaded = new ArrayList<>();
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertUserSql, chunk, (ps, customer) -> {
+                ps.setString(1, customer.fullName);
+                ps.setString(2, customer.email);
+                ps.setString(3, customer.phone);
+                ps.setString(4, mapStatus(customer.status));
+            }, customer -> notLoaded.add(List.of(customer.customerKey)));
+            changeDetectionService.forget(StagingEntity.CUSTOMER, notLoaded);
+
+            Map<String, Integer> userIds = keyResolver.resolve(KeyType.CUSTOMER_EMAIL,
+                    chunk.stream().map(c -> c.email).toList());
+            Map<String, Integer> roleIds = dimensionCache.resolve(Dimension.ROLE,
+                    chunk.stream().flatMap(c -> splitNames(c.roles).stream()).toList());
+            BridgeWriter.Links userRoles = new BridgeWriter.Links();
+            for (CustomerStaging customer : chunk) {
+                Integer userId = userIds.get(customer.email);
+                if (userId == null) {
+                    continue;
+                }
+                for (String roleName : splitNames(customer.roles)) {
+                    Integer roleId = roleIds.get(roleName);
+                    if (roleId != null) {
+                        userRoles.add(Bridge.USER_ROLE, userId, roleId);
                     }
                 }
-
-                loaded++;
-            } catch (Exception e) {
-                log.error("Error loading customer {}: {}", customer.customerKey, e.getMessage());
             }
-        }
+            bridgeWriter.write(userRoles);
+            CustomerStaging last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, last.loadedAt, last.customerKey);
+            return written;
+        });
 
-        log.info("Loaded {} customers to source_db", loaded);
-        return loaded;
+        log.info("Loaded {} customers to source_db", report.getLoaded());
+        return report.getLoaded();
     }
 
-    @Transactional
     public int loadBooksToSource() {
         log.info("Loading validated books from staging_db to source_db...");
+        dimensionCache.warmUp(Dimension.AUTHOR, Dimension.CATEGORY);
+        return writeBooks(deltaFilter("book_key"), deltaArgs("books"), "books");
+    }
+
+    public int loadBooks(Collection<String> bookKeys) {
+        if (bookKeys == null || bookKeys.isEmpty()) {
+            return 0;
+        }
+        return writeBooks(" AND book_key IN (" + placeholders(bookKeys.size()) + ")", bookKeys.toArray(), null);
+    }
 
+    private BatchLoadReport streamBooks(String filter, Object[] args, ToIntFunction<List<BookStaging>> chunkWriter) {
         String selectSql = """
-                SELECT book_key, title, authors, categories, description, price, free_flag, released_at
+                SELECT book_key, title, authors, categories, description, price, free_flag, released_at, loaded_at
                 FROM staging_db.stg_books
                 WHERE quality_status = 'VALIDATED'
-                """;
+                """ + filter;
 
-        List<BookStaging> books = stagingJdbcTemplate.query(selectSql, (rs, rowNum) -> {
+        return batchUpserter.streamInChunks("books", stagingReader(), selectSql, args, (rs, rowNum) -> {
             BookStaging b = new BookStaging();
             b.bookKey = rs.getString("book_key");
             b.title = rs.getString("title");
@@ -122,93 +182,90 @@ public class SourceDbLoaderService {
             b.price = rs.getBigDecimal("price");
             b.freeFlag = rs.getBoolean("free_flag");
             b.releasedAt = rs.getDate("released_at");
+            b.loadedAt = rs.getTimestamp("loaded_at");
             return b;
-        });
+        }, chunkWriter);
+    }
 
-        int loaded = 0;
-        for (BookStaging book : books) {
-            try {
-                String upsertBookSql = """
-                        INSERT INTO source_db.sach (ten_sach, mo_ta, gia_ban, mien_phi, ngay_phat_hanh, trang_thai)
-                        VALUES (?, ?, ?, ?, ?, 'HIEU_LUC')
-                        ON DUPLICATE KEY UPDATE
-                            ten_sach = VALUES(ten_sach),
-                            mo_ta = VALUES(mo_ta),
-                            gia_ban = VALUES(gia_ban),
-                            mien_phi = VALUES(mien_phi),
-                            ngay_phat_hanh = VALUES(ngay_phat_hanh)
-                        """;
-
-                sourceJdbcTemplate.update(upsertBookSql,
-                        book.title,
-                        book.description,
-                        book.price,
-                        book.freeFlag,
-                        book.releasedAt
-                );
-
-                Integer bookId = sourceJdbcTemplate.queryForObject(
-                        "SELECT ma_sach FROM source_db.sach WHERE ten_sach = ? ORDER BY ma_sach DESC LIMIT 1",
-                        Integer.class,
-                        book.title
-                );
-
-                if (bookId != null) {
-                    if (book.authors != null && !book.authors.isEmpty()) {
-                        String[] authorNames = book.authors.split("[,|]");
-                        for (String authorName : authorNames) {
-                            String trimmedAuthor = authorName.trim();
-                            if (!trimmedAuthor.isEmpty()) {
-                                Integer authorId = getOrCreateAuthor(trimmedAuthor);
-                                if (authorId != null) {
-                                    sourceJdbcTemplate.update(
-                                            "INSERT IGNORE INTO source_db.sach_tac_gia (ma_sach, ma_tac_gia) VALUES (?, ?)",
-                                            bookId, authorId
-                                    );
-                                }
-                            }
-                        }
-                    }
+    private int writeBooks(String filter, Object[] args, String watermarkEntity) {
+        String upsertBookSql = """
+                INSERT INTO source_db.sach (ten_sach, mo_ta, gia_ban, mien_phi, ngay_phat_hanh, trang_thai)
+                VALUES (?, ?, ?, ?, ?, 'HIEU_LUC')
+                ON DUPLICATE KEY UPDATE
+                    ten_sach = VALUES(ten_sach),
+                    mo_ta = VALUES(mo_ta),
+                    gia_ban = VALUES(gia_ban),
+                    mien_phi = VALUES(mien_phi),
+                    ngay_phat_hanh = VALUES(ngay_phat_hanh)
+                """;
 
-                    if (book.categories != null && !book.categories.isEmpty()) {
-                        String[] categoryNames = book.categories.split("[,|]");
-                        for (String categoryName : categoryNames) {
-                            String trimmedCategory = categoryName.trim();
-                            if (!trimmedCategory.isEmpty()) {
-                                Integer categoryId = getOrCreateCategory(trimmedCategory);
-                                if (categoryId != null) {
-                                    sourceJdbcTemplate.update(
-                                            "INSERT IGNORE INTO source_db.sach_the_loai (ma_sach, ma_the_loai) VALUES (?, ?)",
-                                            bookId, categoryId
-                                    );
-                                }
-                            }
-                        }
+        BatchLoadReport report = streamBooks(filter, args, chunk -> {
+            List<List<String>> notLoaded = new ArrayList<>();
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertBookSql, chunk, (ps, book) -> {
+                ps.setString(1, book.title);
+                ps.setString(2, book.description);
+                ps.setBigDecimal(3, book.price);
+                ps.setObject(4, book.freeFlag, Types.BOOLEAN);
+                ps.setDate(5, book.releasedAt);
+            }, book -> notLoaded.add(List.of(book.bookKey)));
+            changeDetectionService.forget(StagingEntity.BOOK, notLoaded);
+
+            Map<String, Integer> bookIds = keyResolver.resolveFresh(KeyType.BOOK_TITLE,
+                    chunk.stream().map(b -> b.title).toList());
+            Map<String, Integer> authorIds = dimensionCache.resolve(Dimension.AUTHOR,
+                    chunk.stream().flatMap(b -> splitNames(b.authors).stream()).toList());
+            Map<String, Integer> categoryIds = dimensionCache.resolve(Dimension.CATEGORY,
+                    chunk.stream().flatMap(b -> splitNames(b.categories).stream()).toList());
+            BridgeWriter.Links bookLinks = new BridgeWriter.Links();
+            for (BookStaging book : chunk) {
+                Integer bookId = bookIds.get(book.title);
+                if (bookId == null) {
+                    continue;
+                }
+                for (String authorName : splitNames(book.authors)) {
+                    Integer authorId = authorIds.get(authorName);
+                    if (authorId != null) {
+                        bookLinks.add(Bridge.BOOK_AUTHOR, bookId, authorId);
+                    }
+                }
+                for (String categoryName : splitNames(book.categories)) {
+                    Integer categoryId = categoryIds.get(categoryName);
+                    if (categoryId != null) {
+                        bookLinks.add(Bridge.BOOK_CATEGORY, bookId, categoryId);
                     }
                 }
-
-                loaded++;
-            } catch (Exception e) {
-                log.error("Error loading book {}: {}", book.bookKey, e.getMessage());
             }
-        }
+            bridgeWriter.write(bookLinks);
+            BookStaging last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, last.loadedAt, last.bookKey);
+            return written;
+        });
 
-        log.info("Loaded {} books to source_db", loaded);
-        return loaded;
+        log.info("Loaded {} books to source_db", report.getLoaded());
+        return report.getLoaded();
     }
 
-    @Transactional
     public int loadOrdersToSource() {
         log.info("Loading validated orders from staging_db to source_db...");
+        return writeOrders(deltaFilter("order_key"), deltaArgs("orders"), "orders");
+    }
+
+    public int loadOrders(Collection<String> orderKeys) {
+        if (orderKeys == null || orderKeys.isEmpty()) {
+            return 0;
+        }
+        return writeOrders(" AND order_key IN (" + placeholders(orderKeys.size()) + ")", orderKeys.toArray(), null);
+    }
 
+    private BatchLoadReport streamOrders(String filter, Object[] args, ToIntFunction<List<OrderStaging>> chunkWriter) {
         String selectSql = """
                 SELECT order_key, customer_key, status, payment_method, subtotal, discount, shipping_fee, total_amount,
-                       receiver_name, receiver_phone, receiver_address, payment_ref, order_date
+                       receiver_name, receiver_phone, receiver_address, payment_ref, order_date, loaded_at
                 FROM staging_db.stg_orders
                 WHERE quality_status = 'VALIDATED'
-                """;
+                """ + filter;
 
-        List<OrderStaging> orders = stagingJdbcTemplate.query(selectSql, (rs, rowNum) -> {
+        return batchUpserter.streamInChunks("orders", stagingReader(), selectSql, args, (rs, rowNum) -> {
             OrderStaging o = new OrderStaging();
             o.orderKey = rs.getString("order_key");
             o.customerKey = rs.getString("customer_key");
@@ -223,123 +280,131 @@ public class SourceDbLoaderService {
             o.receiverAddress = rs.getString("receiver_address");
             o.paymentRef = rs.getString("payment_ref");
             o.orderDate = rs.getTimestamp("order_date");
+            o.loadedAt = rs.getTimestamp("loaded_at");
             return o;
-        });
+        }, chunkWriter);
+    }
 
-        int loaded = 0;
-        int skipped = 0;
-        for (OrderStaging order : orders) {
-            try {
-                Integer userId = null;
-                try {
-                    userId = sourceJdbcTemplate.queryForObject(
-                            "SELECT ma_nguoi_dung FROM source_db.nguoi_dung WHERE email = ? LIMIT 1",
-                            Integer.class,
-                            order.customerKey
-                    );
-                } catch (Exception e) {
-                }
+    private int writeOrders(String filter, Object[] args, String watermarkEntity) {
+        String upsertOrderSql = """
+                INSERT INTO source_db.don_hang (ma_nguoi_dung, external_order_id, trang_thai, phuong_thuc_thanh_toan,
+                                                tien_hang, giam_gia, phi_vc, tong_tien,
+                                                ten_nguoi_nhan, sdt_nguoi_nhan, dia_chi_nhan,
+                                                ma_tham_chieu_thanh_toan, ngay_tao)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    trang_thai = VALUES(trang_thai),
+                    tien_hang = VALUES(tien_hang),
+                    giam_gia = VALUES(giam_gia),
+                    phi_vc = VALUES(phi_vc),
+                    tong_tien = VALUES(tong_tien)
+                """;
 
-                if (userId == null) {
-                    log.warn("⚠️ Order {} skipped: customer '{}' not found. Upload customers_source.csv first!", 
+        BatchLoadReport report = streamOrders(filter, args, chunk -> {
+            Map<String, Integer> userIds = keyResolver.resolve(KeyType.CUSTOMER_EMAIL,
+                    chunk.stream().map(o -> o.customerKey).toList());
+            List<OrderStaging> resolved = new ArrayList<>();
+            List<List<String>> notLoaded = new ArrayList<>();
+            for (OrderStaging order : chunk) {
+                order.userId = userIds.get(order.customerKey);
+                if (order.userId == null) {
+                    log.warn("⚠️ Order {} skipped: customer '{}' not found. Upload customers_source.csv first!",
                             order.orderKey, order.customerKey);
-                    skipped++;
+                    notLoaded.add(List.of(order.orderKey));
                     continue;
                 }
-
-                String upsertOrderSql = """
-                        INSERT INTO source_db.don_hang (ma_nguoi_dung, external_order_id, trang_thai, phuong_thuc_thanh_toan,
-                                                        tien_hang, giam_gia, phi_vc, tong_tien,
-                                                        ten_nguoi_nhan, sdt_nguoi_nhan, dia_chi_nhan,
-                                                        ma_tham_chieu_thanh_toan, ngay_tao)
-                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                        ON DUPLICATE KEY UPDATE
-                            trang_thai = VALUES(trang_thai),
-                            tien_hang = VALUES(tien_hang),
-                            giam_gia = VALUES(giam_gia),
-                            phi_vc = VALUES(phi_vc),
-                            tong_tien = VALUES(tong_tien),
-                            ngay_cap_nhat = NOW()
-                        """;
-
-                sourceJdbcTemplate.update(upsertOrderSql,
-                        userId,
-                        order.orderKey,
-                        order.status,
-                        order.paymentMethod,
-                        order.subtotal,
-                        order.discount,
-                        order.shippingFee,
-                        order.totalAmount,
-                        order.receiverName,
-                        order.receiverPhone,
-                        order.receiverAddress,
-                        order.paymentRef,
-                        order.orderDate
-                );
-
-                loaded++;
-            } catch (Exception e) {
-                log.error("Error loading order {}: {}", order.orderKey, e.getMessage());
+                resolved.add(order);
             }
+
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertOrderSql, resolved, (ps, order) -> {
+                ps.setInt(1, order.userId);
+                ps.setString(2, order.orderKey);
+                ps.setString(3, order.status);
+                ps.setString(4, order.paymentMethod);
+                ps.setBigDecimal(5, order.subtotal);
+                ps.setBigDecimal(6, order.discount);
+                ps.setBigDecimal(7, order.shippingFee);
+                ps.setBigDecimal(8, order.totalAmount);
+                ps.setString(9, order.receiverName);
+                ps.setString(10, order.receiverPhone);
+                ps.setString(11, order.receiverAddress);
+                ps.setString(12, order.paymentRef);
+                ps.setTimestamp(13, order.orderDate);
+            }, order -> notLoaded.add(List.of(order.orderKey)));
+            changeDetectionService.forget(StagingEntity.ORDER, notLoaded);
+            OrderStaging last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, last.loadedAt, last.orderKey);
+            return written;
+        });
+
+        if (report.getSkipped() > 0) {
+            log.warn("{} orders skipped due to missing customers. Upload customers first!", report.getSkipped());
         }
+        log.info("Loaded {} orders to source_db ({} skipped)", report.getLoaded(), report.getSkipped());
+        return report.getLoaded();
+    }
+
+    /**
+     * With streaming reads, staging rows are pulled from a MySQL streaming result set and handed to
+     * the writer chunk by chunk, so memory stays flat however large the staging table is.
+     */
+    private JdbcTemplate stagingReader() {
+        return streamingRead ? stagingStreamingJdbcTemplate : stagingJdbcTemplate;
+    }
 
-        if (skipped > 0) {
-            log.warn("{} orders skipped due to missing customers. Upload customers first!", skipped);
+    /**
+     * Delta filter for full loads: rows after the entity's watermark in (loaded_at, key) order. Rows
+     * stamped in the current second are left for the next run, since more rows may still get that
+     * same loaded_at.
+     */
+    private static String deltaFilter(String keyExpression) {
+        return " AND loaded_at < CURRENT_TIMESTAMP"
+                + " AND (loaded_at > ? OR (loaded_at = ? AND " + keyExpression + " > ?))"
+                + " ORDER BY loaded_at, " + keyExpression;
+    }
+
+    private Object[] deltaArgs(String entity) {
+        LoadWatermark watermark = watermarkRepository.find(entity);
+        log.info("Delta load of {} from watermark ({}, '{}')", entity, watermark.getLastLoadedAt(), watermark.getLastKey());
+        return new Object[] {watermark.getLastLoadedAt(), watermark.getLastLoadedAt(), watermark.getLastKey()};
+    }
+
+    /**
+     * Moves the entity's watermark to the last row of a written chunk once the source_db transaction
+     * commits, so a rolled back chunk is picked up again by the next run.
+     */
+    private void advanceWatermark(String entity, java.sql.Timestamp loadedAt, String key) {
+        if (entity == null || loadedAt == null) {
+            return;
         }
-        log.info("Loaded {} orders to source_db ({} skipped)", loaded, skipped);
-        return loaded;
-    }
-
-    private Integer getOrCreateRole(String roleName) {
-        try {
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_vai_tro FROM source_db.vai_tro WHERE ten_vai_tro = ?",
-                    Integer.class,
-                    roleName
-            );
-        } catch (Exception e) {
-            sourceJdbcTemplate.update("INSERT INTO source_db.vai_tro (ten_vai_tro) VALUES (?)", roleName);
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_vai_tro FROM source_db.vai_tro WHERE ten_vai_tro = ?",
-                    Integer.class,
-                    roleName
-            );
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    watermarkRepository.advance(entity, loadedAt, key);
+                }
+            });
+        } else {
+            watermarkRepository.advance(entity, loadedAt, key);
         }
     }
 
-    private Integer getOrCreateAuthor(String authorName) {
-        try {
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_tac_gia FROM source_db.tac_gia WHERE ten_tac_gia = ?",
-                    Integer.class,
-                    authorName
-            );
-        } catch (Exception e) {
-            sourceJdbcTemplate.update("INSERT INTO source_db.tac_gia (ten_tac_gia) VALUES (?)", authorName);
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_tac_gia FROM source_db.tac_gia WHERE ten_tac_gia = ?",
-                    Integer.class,
-                    authorName
-            );
-        }
+    public int resetWatermark(String entity) {
+        return entity == null ? watermarkRepository.resetAll() : watermarkRepository.reset(entity);
     }
 
-    private Integer getOrCreateCategory(String categoryName) {
-        try {
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_the_loai FROM source_db.the_loai WHERE ten_the_loai = ?",
-                    Integer.class,
-                    categoryName
-            );
-        } catch (Exception e) {
-            sourceJdbcTemplate.update("INSERT INTO source_db.the_loai (ten_the_loai) VALUES (?)", categoryName);
-            return sourceJdbcTemplate.queryForObject(
-                    "SELECT ma_the_loai FROM source_db.the_loai WHERE ten_the_loai = ?",
-                    Integer.class,
-                    categoryName
-            );
+    private static List<String> splitNames(String names) {
+        if (names == null || names.isEmpty()) {
+            return List.of();
         }
+        return Arrays.stream(names.split("[,|]"))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     private String mapStatus(String status) {
@@ -355,6 +420,7 @@ public class SourceDbLoaderService {
         String phone;
         String roles;
         String status;
+        java.sql.Timestamp loadedAt;
     }
 
     private static class BookStaging {
@@ -366,6 +432,7 @@ public class SourceDbLoaderService {
         java.math.BigDecimal price;
         Boolean freeFlag;
         java.sql.Date releasedAt;
+        java.sql.Timestamp loadedAt;
     }
 
     private static class OrderStaging {
@@ -382,190 +449,222 @@ public class SourceDbLoaderService {
         String receiverAddress;
         String paymentRef;
         java.sql.Timestamp orderDate;
+        java.sql.Timestamp loadedAt;
+        Integer userId;
     }
 
 
     public int loadOrderItemsToSource() {
         log.info("Loading validated order items from staging_db to source_db...");
+        return writeOrderItems(deltaFilter("CONCAT(order_key, '|', book_key)"), deltaArgs("order_items"), "order_items");
+    }
+
+    public int loadOrderItems(Collection<String> orderKeys) {
+        if (orderKeys == null || orderKeys.isEmpty()) {
+            return 0;
+        }
+        return writeOrderItems(" AND order_key IN (" + placeholders(orderKeys.size()) + ")", orderKeys.toArray(), null);
+    }
 
+    private BatchLoadReport streamOrderItems(String filter, Object[] args, ToIntFunction<List<Map<String, Object>>> chunkWriter) {
         String selectSql = """
-                SELECT order_key, book_key, quantity, unit_price
+                SELECT order_key, book_key, quantity, unit_price, loaded_at
                 FROM staging_db.stg_order_items
                 WHERE quality_status = 'VALIDATED'
+                """ + filter;
+
+        return batchUpserter.streamInChunks("order items", stagingReader(), selectSql, args, new ColumnMapRowMapper(), chunkWriter);
+    }
+
+    private int writeOrderItems(String filter, Object[] args, String watermarkEntity) {
+        String upsertSql = """
+                INSERT INTO source_db.chi_tiet_don_hang (ma_don_hang, ma_sach, so_luong, don_gia)
+                VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    so_luong = VALUES(so_luong),
+                    don_gia = VALUES(don_gia)
                 """;
 
-        List<Map<String, Object>> items = stagingJdbcTemplate.queryForList(selectSql);
+        BatchLoadReport report = streamOrderItems(filter, args, chunk -> {
+            Map<String, Integer> orderIds = keyResolver.resolve(KeyType.ORDER_EXTERNAL_ID,
+                    chunk.stream().map(item -> (String) item.get("order_key")).toList());
+            Map<String, Integer> bookIds = keyResolver.resolve(KeyType.BOOK_TITLE,
+                    chunk.stream().map(item -> (String) item.get("book_key")).toList());
 
-        int loaded = 0;
-        int skipped = 0;
-        for (Map<String, Object> item : items) {
-            try {
+            List<Object[]> rows = new ArrayList<>();
+            List<List<String>> notLoaded = new ArrayList<>();
+            for (Map<String, Object> item : chunk) {
                 String orderKey = (String) item.get("order_key");
                 String bookKey = (String) item.get("book_key");
-                Integer quantity = (Integer) item.get("quantity");
-                java.math.BigDecimal unitPrice = (java.math.BigDecimal) item.get("unit_price");
-
-                Integer orderId = null;
-                try {
-                    orderId = sourceJdbcTemplate.queryForObject(
-                            "SELECT ma_don_hang FROM source_db.don_hang WHERE external_order_id = ? LIMIT 1",
-                            Integer.class,
-                            orderKey
-                    );
-                } catch (Exception e) {
+                Integer orderId = orderIds.get(orderKey);
+                if (orderId == null) {
                     log.warn("Order item skipped: order '{}' not found in source_db", orderKey);
-                    skipped++;
+                    notLoaded.add(List.of(orderKey, bookKey));
                     continue;
                 }
-                Integer bookId = null;
-                try {
-                    bookId = sourceJdbcTemplate.queryForObject(
-                            "SELECT ma_sach FROM source_db.sach WHERE ten_sach = ? LIMIT 1",
-                            Integer.class,
-                            bookKey
-                    );
-                } catch (Exception e) {
+                Integer bookId = bookIds.get(bookKey);
+                if (bookId == null) {
                     log.warn("Order item skipped: book '{}' not found in source_db", bookKey);
-                    skipped++;
+                    notLoaded.add(List.of(orderKey, bookKey));
                     continue;
                 }
-
-                String upsertSql = """
-                        INSERT INTO source_db.chi_tiet_don_hang (ma_don_hang, ma_sach, so_luong, don_gia)
-                        VALUES (?, ?, ?, ?)
-                        ON DUPLICATE KEY UPDATE
-                            so_luong = VALUES(so_luong),
-                            don_gia = VALUES(don_gia)
-                        """;
-
-                sourceJdbcTemplate.update(upsertSql, orderId, bookId, quantity, unitPrice);
-                loaded++;
-                
-            } catch (Exception e) {
-                log.error("Error loading order item: {}", e.getMessage());
-                skipped++;
+                // The staging key rides along after the bound columns.
+                rows.add(new Object[] {orderId, bookId, item.get("quantity"), item.get("unit_price"), orderKey, bookKey});
             }
-        }
 
-        if (skipped > 0) {
-            log.warn("{} order items skipped (order or book not found)", skipped);
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertSql, rows, (ps, row) -> {
+                ps.setInt(1, (Integer) row[0]);
+                ps.setInt(2, (Integer) row[1]);
+                ps.setObject(3, row[2], Types.INTEGER);
+                ps.setBigDecimal(4, (java.math.BigDecimal) row[3]);
+            }, row -> notLoaded.add(List.of((String) row[4], (String) row[5])));
+            changeDetectionService.forget(StagingEntity.ORDER_ITEM, notLoaded);
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, (java.sql.Timestamp) last.get("loaded_at"),
+                    last.get("order_key") + "|" + last.get("book_key"));
+            return written;
+        });
+
+        if (report.getSkipped() > 0) {
+            log.warn("{} order items skipped (order or book not found)", report.getSkipped());
         }
-        log.info("Loaded {} order items to source_db ({} skipped)", loaded, skipped);
-        return loaded;
+        log.info("Loaded {} order items to source_db ({} skipped)", report.getLoaded(), report.getSkipped());
+        return report.getLoaded();
     }
 
     public int loadCartsToSource() {
         log.info("Loading validated carts from staging_db to source_db...");
+        return writeCarts(deltaFilter("cart_key"), deltaArgs("carts"), "carts");
+    }
+
+    public int loadCarts(Collection<String> cartKeys) {
+        if (cartKeys == null || cartKeys.isEmpty()) {
+            return 0;
+        }
+        return writeCarts(" AND cart_key IN (" + placeholders(cartKeys.size()) + ")", cartKeys.toArray(), null);
+    }
 
+    private BatchLoadReport streamCarts(String filter, Object[] args, ToIntFunction<List<Map<String, Object>>> chunkWriter) {
         String selectSql = """
-                SELECT cart_key, customer_key, created_at
+                SELECT cart_key, customer_key, created_at, loaded_at
                 FROM staging_db.stg_carts
                 WHERE quality_status = 'VALIDATED'
+                """ + filter;
+
+        return batchUpserter.streamInChunks("carts", stagingReader(), selectSql, args, new ColumnMapRowMapper(), chunkWriter);
+    }
+
+    private int writeCarts(String filter, Object[] args, String watermarkEntity) {
+        String upsertSql = """
+                INSERT INTO source_db.gio_hang (ma_nguoi_dung, ngay_tao)
+                VALUES (?, ?)
+                ON DUPLICATE KEY UPDATE
+                    ngay_cap_nhat = NOW()
                 """;
 
-        List<Map<String, Object>> carts = stagingJdbcTemplate.queryForList(selectSql);
+        BatchLoadReport report = streamCarts(filter, args, chunk -> {
+            Map<String, Integer> userIds = keyResolver.resolve(KeyType.CUSTOMER_EMAIL,
+                    chunk.stream().map(cart -> (String) cart.get("customer_key")).toList());
 
-        int loaded = 0;
-        int skipped = 0;
-        for (Map<String, Object> cart : carts) {
-            try {
+            List<Object[]> rows = new ArrayList<>();
+            List<List<String>> notLoaded = new ArrayList<>();
+            for (Map<String, Object> cart : chunk) {
                 String cartKey = (String) cart.get("cart_key");
                 String customerKey = (String) cart.get("customer_key");
-                java.sql.Timestamp createdAt = (java.sql.Timestamp) cart.get("created_at");
-
-                Integer userId = null;
-                try {
-                    userId = sourceJdbcTemplate.queryForObject(
-                            "SELECT ma_nguoi_dung FROM source_db.nguoi_dung WHERE email = ? LIMIT 1",
-                            Integer.class,
-                            customerKey
-                    );
-                } catch (Exception e) {
+                Integer userId = userIds.get(customerKey);
+                if (userId == null) {
                     log.warn("Cart {} skipped: customer '{}' not found", cartKey, customerKey);
-                    skipped++;
+                    notLoaded.add(List.of(cartKey));
                     continue;
                 }
-
-                String upsertSql = """
-                        INSERT INTO source_db.gio_hang (ma_nguoi_dung, ngay_tao)
-                        VALUES (?, ?)
-                        ON DUPLICATE KEY UPDATE
-                            ngay_cap_nhat = NOW()
-                        """;
-
-                sourceJdbcTemplate.update(upsertSql, userId, createdAt);
-                loaded++;
-            } catch (Exception e) {
-                log.error("Error loading cart: {}", e.getMessage());
+                rows.add(new Object[] {userId, cart.get("created_at"), cartKey});
             }
-        }
 
-        log.info("Loaded {} carts to source_db ({} skipped)", loaded, skipped);
-        return loaded;
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertSql, rows, (ps, row) -> {
+                ps.setInt(1, (Integer) row[0]);
+                ps.setTimestamp(2, (java.sql.Timestamp) row[1]);
+            }, row -> notLoaded.add(List.of((String) row[2])));
+            changeDetectionService.forget(StagingEntity.CART, notLoaded);
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, (java.sql.Timestamp) last.get("loaded_at"), (String) last.get("cart_key"));
+            return written;
+        });
+
+        log.info("Loaded {} carts to source_db ({} skipped)", report.getLoaded(), report.getSkipped());
+        return report.getLoaded();
     }
 
     public int loadInvoicesToSource() {
         log.info("Loading validated invoices from staging_db to source_db...");
+        return writeInvoices(deltaFilter("invoice_key"), deltaArgs("invoices"), "invoices");
+    }
+
+    public int loadInvoices(Collection<String> invoiceKeys) {
+        if (invoiceKeys == null || invoiceKeys.isEmpty()) {
+            return 0;
+        }
+        return writeInvoices(" AND invoice_key IN (" + placeholders(invoiceKeys.size()) + ")", invoiceKeys.toArray(), null);
+    }
 
+    private BatchLoadReport streamInvoices(String filter, Object[] args, ToIntFunction<List<Map<String, Object>>> chunkWriter) {
         String selectSql = """
-                SELECT invoice_key, order_key, amount, status, issued_at, due_at
+                SELECT invoice_key, order_key, amount, status, issued_at, due_at, loaded_at
                 FROM staging_db.stg_invoices
                 WHERE quality_status = 'VALIDATED'
+                """ + filter;
+
+        return batchUpserter.streamInChunks("invoices", stagingReader(), selectSql, args, new ColumnMapRowMapper(), chunkWriter);
+    }
+
+    private int writeInvoices(String filter, Object[] args, String watermarkEntity) {
+        String upsertSql = """
+                INSERT INTO source_db.hoa_don (ma_don_hang, so_tien, trang_thai_thanh_toan, ngay_tao)
+                VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    so_tien = VALUES(so_tien),
+                    trang_thai_thanh_toan = VALUES(trang_thai_thanh_toan)
                 """;
 
-        List<Map<String, Object>> invoices = stagingJdbcTemplate.queryForList(selectSql);
+        BatchLoadReport report = streamInvoices(filter, args, chunk -> {
+            Map<String, Integer> orderIds = keyResolver.resolve(KeyType.ORDER_EXTERNAL_ID,
+                    chunk.stream().map(invoice -> (String) invoice.get("order_key")).toList());
 
-        int loaded = 0;
-        int skipped = 0;
-        for (Map<String, Object> invoice : invoices) {
-            try {
+            List<Object[]> rows = new ArrayList<>();
+            List<List<String>> notLoaded = new ArrayList<>();
+            for (Map<String, Object> invoice : chunk) {
                 String invoiceKey = (String) invoice.get("invoice_key");
                 String orderKey = (String) invoice.get("order_key");
-                java.math.BigDecimal amount = (java.math.BigDecimal) invoice.get("amount");
-                if (amount == null) {
-                    amount = java.math.BigDecimal.ZERO;
-                }
-                String status = (String) invoice.get("status");
-                java.sql.Timestamp issuedAt = (java.sql.Timestamp) invoice.get("issued_at");
-                java.sql.Timestamp dueAt = (java.sql.Timestamp) invoice.get("due_at");
-
-                Integer orderId = null;
-                try {
-                    orderId = sourceJdbcTemplate.queryForObject(
-                            "SELECT ma_don_hang FROM source_db.don_hang WHERE external_order_id = ? LIMIT 1",
-                            Integer.class,
-                            orderKey
-                    );
-                } catch (Exception e) {
-                }
-
+                Integer orderId = orderIds.get(orderKey);
                 if (orderId == null) {
                     log.warn("Invoice {} skipped: order '{}' not found in source_db", invoiceKey, orderKey);
-                    skipped++;
+                    notLoaded.add(List.of(invoiceKey));
                     continue;
                 }
-
-                String upsertSql = """
-                        INSERT INTO source_db.hoa_don (ma_don_hang, so_tien, trang_thai_thanh_toan, ngay_tao)
-                        VALUES (?, ?, ?, ?)
-                        ON DUPLICATE KEY UPDATE
-                            so_tien = VALUES(so_tien),
-                            trang_thai_thanh_toan = VALUES(trang_thai_thanh_toan)
-                        """;
-
-                java.sql.Timestamp createdAt = issuedAt != null ? issuedAt : new java.sql.Timestamp(System.currentTimeMillis());
-                String paymentStatus = mapInvoicePaymentStatus(status);
-
-                sourceJdbcTemplate.update(upsertSql, orderId, amount, paymentStatus, createdAt);
-                loaded++;
-            } catch (Exception e) {
-                log.error("Error loading invoice: {}", e.getMessage());
-                skipped++;
+                java.math.BigDecimal amount = (java.math.BigDecimal) invoice.get("amount");
+                java.sql.Timestamp issuedAt = (java.sql.Timestamp) invoice.get("issued_at");
+                rows.add(new Object[] {
+                        orderId,
+                        amount != null ? amount : java.math.BigDecimal.ZERO,
+                        mapInvoicePaymentStatus((String) invoice.get("status")),
+                        issuedAt != null ? issuedAt : new java.sql.Timestamp(System.currentTimeMillis()),
+                        invoiceKey
+                });
             }
-        }
 
-        log.info("Loaded {} invoices to source_db ({} skipped)", loaded, skipped);
-        return loaded;
+            int written = batchUpserter.batchUpsert(sourceJdbcTemplate, upsertSql, rows, (ps, row) -> {
+                ps.setInt(1, (Integer) row[0]);
+                ps.setBigDecimal(2, (java.math.BigDecimal) row[1]);
+                ps.setString(3, (String) row[2]);
+                ps.setTimestamp(4, (java.sql.Timestamp) row[3]);
+            }, row -> notLoaded.add(List.of((String) row[4])));
+            changeDetectionService.forget(StagingEntity.INVOICE, notLoaded);
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            advanceWatermark(watermarkEntity, (java.sql.Timestamp) last.get("loaded_at"), (String) last.get("invoice_key"));
+            return written;
+        });
+
+        log.info("Loaded {} invoices to source_db ({} skipped)", report.getLoaded(), report.getSkipped());
+        return report.getLoaded();
     }
 
     private String mapInvoicePaymentStatus(String status) {
@@ -1,20 +1,20 @@
 package com.booknest.etl.service.orchestrator;
 
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.booknest.etl.dto.BookRawMessage;
-import com.booknest.etl.dto.CartRawMessage;
-import com.booknest.etl.dto.InvoiceRawMessage;
-import com.booknest.etl.dto.OrderRawMessage;
-import com.booknest.etl.dto.UserRawMessage;
 import com.booknest.etl.messaging.producer.EtlMessagePublisher;
 import com.booknest.etl.service.extract.CsvExtractService;
 import com.booknest.etl.service.extract.DatabaseExtractService;
+import com.booknest.etl.service.extract.IncrementalExtractService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,45 +27,57 @@ public class EtlOrchestratorService {
     private final CsvExtractService csvExtractService;
     private final DatabaseExtractService databaseExtractService;
     private final EtlMessagePublisher messagePublisher;
+    private final IncrementalExtractService incrementalExtractService;
 
-    // TẠẠM TẮT scheduled job để data trong staging không bị ghi đè khi demo
-    // @Scheduled(fixedDelayString = "${etl.extract.schedule-fixed-delay:300000}")
+    @Value("${etl.extract.incremental.enabled:false}")
+    private boolean incrementalEnabled;
+
+    // The full extract stays manual so staging is not overwritten during demos; the scheduled job only
+    // publishes source_db rows changed since the last run.
+    @Scheduled(fixedDelayString = "${etl.extract.schedule-fixed-delay:300000}")
     public void scheduleExtractJob() {
-        log.info("Starting scheduled extract job");
-        runDatabaseExtract();
-        runCsvExtract();
-        log.info("Completed scheduled extract job");
+        if (!incrementalEnabled) {
+            return;
+        }
+        log.info("Starting scheduled incremental extract job");
+        runIncrementalDatabaseExtract();
+        log.info("Completed scheduled incremental extract job");
     }
 
     public void runDatabaseExtract() {
-        List<BookRawMessage> books = databaseExtractService.fetchBooks();
-        log.info("Publishing {} book records from database", books.size());
-        books.forEach(messagePublisher::sendRaw);
-
-        List<UserRawMessage> users = databaseExtractService.fetchUsers();
-        log.info("Publishing {} user records from database", users.size());
-        users.forEach(messagePublisher::sendRaw);
-
-        List<CartRawMessage> carts = databaseExtractService.fetchCarts();
-        log.info("Publishing {} cart records from database", carts.size());
-        carts.forEach(messagePublisher::sendRaw);
+        publish(databaseExtractService.streamBooks(), messagePublisher::sendRaw, "book records from database");
+        publish(databaseExtractService.streamUsers(), messagePublisher::sendRaw, "user records from database");
+        publish(databaseExtractService.streamCarts(), messagePublisher::sendRaw, "cart records from database");
+        publish(databaseExtractService.streamInvoices(), messagePublisher::sendRaw, "invoice records from database");
+    }
 
-        List<InvoiceRawMessage> invoices = databaseExtractService.fetchInvoices();
-        log.info("Publishing {} invoice records from database", invoices.size());
-        invoices.forEach(messagePublisher::sendRaw);
+    public Map<String, Integer> runIncrementalDatabaseExtract() {
+        return incrementalExtractService.extractChanges();
     }
 
     public void runCsvExtract() {
-        List<BookRawMessage> books = csvExtractService.readBooks();
-        log.info("Publishing {} book records from CSV", books.size());
-        books.forEach(messagePublisher::sendRaw);
-
-        List<UserRawMessage> customers = csvExtractService.readCustomers();
-        log.info("Publishing {} customer records from CSV", customers.size());
-        customers.forEach(messagePublisher::sendRaw);
+        publish(csvExtractService.streamBooks(), messagePublisher::sendRaw, "book records from CSV");
+        publish(csvExtractService.streamCustomers(), messagePublisher::sendRaw, "customer records from CSV");
+        publish(csvExtractService.streamOrders(), messagePublisher::sendRaw, "order records from CSV");
+    }
 
-        List<OrderRawMessage> orders = csvExtractService.readOrders();
-        log.info("Publishing {} order records from CSV", orders.size());
-        orders.forEach(messagePublisher::sendRaw);
+    /**
+     * Publishes each record as soon as the source produces it and closes the source afterwards.
+     */
+    private <T> void publish(Stream<T> records, Consumer<T> sender, String description) {
+        long start = System.nanoTime();
+        long firstMs = -1;
+        long count = 0;
+        try (records) {
+            Iterator<T> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                sender.accept(iterator.next());
+                if (count++ == 0) {
+                    firstMs = (System.nanoTime() - start) / 1_000_000;
+                }
+            }
+        }
+        log.info("Published {} {} in {} ms (first after {} ms)", count, description,
+                (System.nanoTime() - start) / 1_000_000, firstMs);
     }
 }
@@ -0,0 +1,178 @@
+package com.booknest.etl.service.staging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.booknest.etl.dq.DataQualityStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Content hashes of normalized raw records. A record whose hash matches the one stored with its
+ * staging row, and whose row already made it through validation, is skipped by the raw consumers
+ * instead of being re-staged, re-validated and re-loaded. The source_db loader clears the hash of a row
+ * it could not load, so such a row is never skipped.
+ */
+@Service
+public class ChangeDetectionService {
+
+    public enum StagingEntity {
+        BOOK("stg_books", "book_key"),
+        CUSTOMER("stg_customers", "customer_key"),
+        ORDER("stg_orders", "order_key"),
+        ORDER_ITEM("stg_order_items", "order_key", "book_key"),
+        CART("stg_carts", "cart_key"),
+        INVOICE("stg_invoices", "invoice_key");
+
+        private final String table;
+        private final List<String> keyColumns;
+
+        StagingEntity(String table, String... keyColumns) {
+            this.table = table;
+            this.keyColumns = List.of(keyColumns);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeDetectionService.class);
+
+    // Keys per IN list of the batch lookup.
+    private static final int LOOKUP_CHUNK = 1000;
+
+    // Changes on every extract without the record itself changing.
+    private static final List<String> VOLATILE_FIELDS = List.of("extractedAt");
+
+    private final JdbcTemplate stagingJdbcTemplate;
+    private final ObjectMapper hashMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Map<StagingEntity, Counter> unchanged = new EnumMap<>(StagingEntity.class);
+
+    public ChangeDetectionService(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.stagingJdbcTemplate = stagingJdbcTemplate;
+        for (StagingEntity entity : StagingEntity.values()) {
+            unchanged.put(entity, meterRegistry.counter("etl.records.unchanged", "entity", entity.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * SHA-256 over the record's fields in a fixed (alphabetical) order, so the same content always
+     * yields the same hash regardless of field declaration order or extraction time.
+     */
+    public String hash(Object record) {
+        ObjectNode tree = hashMapper.valueToTree(record);
+        tree.remove(VOLATILE_FIELDS);
+        try {
+            byte[] canonical = hashMapper.writeValueAsString(tree).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash " + record.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * The records whose staged row has the same hash and is VALIDATED, looked up with one query per
+     * {@value #LOOKUP_CHUNK} keys. {@code hashes} maps each normalized record to its content hash and
+     * {@code keyOf} gives its staging key values in the order of the entity's key columns. Rejected rows
+     * are always processed again, since their rejection may have come from a transient failure further
+     * down the pipeline.
+     *
+     * <p>If the lookup fails, nothing is reported unchanged: staging a record again is always safe.
+     */
+    public <T> Set<T> findUnchanged(StagingEntity entity, Map<T, String> hashes, Function<T, List<String>> keyOf) {
+        if (hashes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<List<String>, String> staged = new HashMap<>();
+        List<List<String>> keys = hashes.keySet().stream().map(keyOf).distinct().toList();
+        try {
+            for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+                List<List<String>> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK, keys.size()));
+                findValidatedHashes(entity, chunk, staged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot look up staged hashes of {} {} records, staging them all: {}", keys.size(), entity,
+                    e.getMessage());
+            return Collections.emptySet();
+        }
+
+        Set<T> result = new HashSet<>();
+        hashes.forEach((record, contentHash) -> {
+            if (contentHash.equals(staged.get(keyOf.apply(record)))) {
+                result.add(record);
+            }
+        });
+        unchanged.get(entity).increment(result.size());
+        return result;
+    }
+
+    private void findValidatedHashes(StagingEntity entity, List<List<String>> keys, Map<List<String>, String> staged) {
+        String columns = String.join(", ", entity.keyColumns);
+        String tuple = entity.keyColumns.size() == 1
+                ? "?"
+                : entity.keyColumns.stream().map(column -> "?").collect(Collectors.joining(", ", "(", ")"));
+        String sql = "SELECT " + columns + ", content_hash FROM staging_db." + entity.table
+                + " WHERE " + (entity.keyColumns.size() == 1 ? columns : "(" + columns + ")")
+                + " IN (" + String.join(", ", Collections.nCopies(keys.size(), tuple)) + ")"
+                + " AND quality_status = ?";
+        List<Object> args = new ArrayList<>(keys.size() * entity.keyColumns.size() + 1);
+        keys.forEach(args::addAll);
+        args.add(DataQualityStatus.VALIDATED.value());
+        stagingJdbcTemplate.query(sql, rs -> {
+            List<String> key = new ArrayList<>(entity.keyColumns.size());
+            for (String column : entity.keyColumns) {
+                key.add(rs.getString(column));
+            }
+            staged.put(key, rs.getString("content_hash"));
+        }, args.toArray());
+    }
+
+    /**
+     * Clears the stored hash of staged rows that did not make it into source_db. Their status stays
+     * VALIDATED, but the next extract of the same content no longer counts as unchanged, so the row is
+     * staged and loaded again instead of being skipped for good.
+     */
+    public void forget(StagingEntity entity, List<List<String>> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE staging_db." + entity.table + " SET content_hash = NULL WHERE "
+                + entity.keyColumns.stream().map(column -> column + " = ?").collect(Collectors.joining(" AND "));
+        stagingJdbcTemplate.batchUpdate(sql, keys.stream().map(List::toArray).toList());
+        log.info("Cleared the content hash of {} {} rows that were not loaded", keys.size(), entity);
+    }
+
+    public long unchangedCount() {
+        return (long) Arrays.stream(StagingEntity.values()).mapToDouble(entity -> unchanged.get(entity).count()).sum();
+    }
+}
@@ -11,9 +11,12 @@ import org.springframework.beans.factory.annotation.Qualifier;
 public class StagingSummaryService {
 
     private final JdbcTemplate stagingJdbcTemplate;
+    private final ChangeDetectionService changeDetectionService;
 
-    public StagingSummaryService(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
+    public StagingSummaryService(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate,
+                                 ChangeDetectionService changeDetectionService) {
         this.stagingJdbcTemplate = stagingJdbcTemplate;
+        this.changeDetectionService = changeDetectionService;
     }
 
     public Map<String, Long> loadSummary() {
@@ -26,6 +29,7 @@ public class StagingSummaryService {
         summary.put("invoices", countTable("stg_invoices"));
         summary.put("dq_passed", countStatus("PASSED"));
         summary.put("dq_failed", countStatus("FAILED"));
+        summary.put("unchanged_skipped", changeDetectionService.unchangedCount());
         return summary;
     }
 
@@ -1,6 +1,7 @@
 package com.booknest.etl.staging;
 
 import java.sql.Types;
+import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -8,10 +9,32 @@ import org.springframework.beans.factory.annotation.Qualifier;
 
 import com.booknest.etl.dto.UserRawMessage;
 import com.booknest.etl.dq.DataQualityStatus;
+import com.booknest.etl.repository.staging.StagingRow;
 
 @Repository
 public class StagingCustomerRepository {
 
+    private static final String UPSERT_SQL = """
+            INSERT INTO staging_db.stg_customers (customer_key, full_name, email, phone, roles, status, quality_status, quality_errors, content_hash, loaded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                full_name = VALUES(full_name),
+                email = VALUES(email),
+                phone = VALUES(phone),
+                roles = VALUES(roles),
+                status = VALUES(status),
+                quality_status = VALUES(quality_status),
+                quality_errors = VALUES(quality_errors),
+                content_hash = COALESCE(VALUES(content_hash), content_hash),
+                loaded_at = NOW()
+            """;
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.LONGVARCHAR,
+            Types.VARCHAR
+    };
+
     private final JdbcTemplate stagingJdbcTemplate;
 
     public StagingCustomerRepository(@Qualifier("stagingJdbcTemplate") JdbcTemplate stagingJdbcTemplate) {
@@ -19,20 +42,27 @@ public class StagingCustomerRepository {
     }
 
     public void upsert(UserRawMessage user, DataQualityStatus qualityStatus, String errors) {
-        String sql = """
-                INSERT INTO staging_db.stg_customers (customer_key, full_name, email, phone, roles, status, quality_status, quality_errors, loaded_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW())
-                ON DUPLICATE KEY UPDATE
-                    full_name = VALUES(full_name),
-                    email = VALUES(email),
-                    phone = VALUES(phone),
-                    roles = VALUES(roles),
-                    status = VALUES(status),
-                    quality_status = VALUES(quality_status),
-                    quality_errors = VALUES(quality_errors),
-                    loaded_at = NOW()
-                """;
-        stagingJdbcTemplate.update(sql, new Object[]{
+        upsert(user, qualityStatus, errors, null);
+    }
+
+    /**
+     * {@code contentHash} is stored with the row; a null hash keeps the one already stored.
+     */
+    public void upsert(UserRawMessage user, DataQualityStatus qualityStatus, String errors, String contentHash) {
+        stagingJdbcTemplate.update(UPSERT_SQL, upsertParams(user, qualityStatus, errors, contentHash), UPSERT_TYPES);
+    }
+
+    /**
+     * Writes all rows as one JDBC batch.
+     */
+    public void upsertAll(List<StagingRow<UserRawMessage>> rows) {
+        stagingJdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> upsertParams(row.getRecord(), row.getStatus(), row.getErrors(), row.getContentHash()))
+                .toList(), UPSERT_TYPES);
+    }
+
+    private Object[] upsertParams(UserRawMessage user, DataQualityStatus qualityStatus, String errors, String contentHash) {
+        return new Object[]{
                 user.getUserId(),
                 user.getFullName(),
                 user.getEmail(),
@@ -40,10 +70,8 @@ public class StagingCustomerRepository {
                 String.join(", ", user.getRoles()),
                 user.getStatus(),
                 qualityStatus != null ? qualityStatus.value() : null,
-                errors
-        }, new int[]{
-                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
-                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.LONGVARCHAR
-        });
+                errors,
+                contentHash
+        };
     }
 }
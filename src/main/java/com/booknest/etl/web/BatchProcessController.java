@@ -1,6 +1,5 @@
 package com.booknest.etl.web;
 
-import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -20,6 +19,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.booknest.etl.service.extract.BatchCsvExtractService;
+import com.booknest.etl.service.extract.CompressedInput;
+import com.booknest.etl.service.extract.ExtractRunReport;
 import com.booknest.etl.web.EtlUploadController;
 
 import lombok.RequiredArgsConstructor;
@@ -46,9 +47,19 @@ public class BatchProcessController {
         log.info("Batch extract endpoint called");
         
         try {
-            batchCsvExtractService.extractAllCsvFiles();
+            ExtractRunReport report = batchCsvExtractService.extractAllCsvFiles();
+            if (!report.isConfirmed()) {
+                return ResponseEntity.internalServerError()
+                        .body("Batch extraction was not confirmed by RabbitMQ: " + report.getFailedPublishes()
+                                + " publishes failed");
+            }
+            if (!report.isSuccess()) {
+                return ResponseEntity.internalServerError()
+                        .body("Batch extraction failed for some files: " + report.getFiles());
+            }
             
             String message = "Batch CSV extraction completed successfully. " +
+                           report.getTotalRows() + " rows extracted in " + report.getElapsedMs() + " ms. " +
                            "Check RabbitMQ queues for processing status.";
             
             return ResponseEntity.ok(message);
@@ -60,6 +71,16 @@ public class BatchProcessController {
         }
     }
 
+    /**
+     * Same extraction as /batch-extract, answering with the per-file rows, errors and timings.
+     */
+    @PostMapping("/batch-extract-summary")
+    public ResponseEntity<ExtractRunReport> batchExtractSummary() {
+        log.info("Batch extract summary endpoint called");
+        ExtractRunReport report = batchCsvExtractService.extractAllCsvFiles();
+        return report.isSuccess() ? ResponseEntity.ok(report) : ResponseEntity.internalServerError().body(report);
+    }
+
     @PostMapping("/batch-extract-with-results")
     public ResponseEntity<Map<String, Object>> batchExtractWithResults() throws InterruptedException {
         log.info("Batch extract with results endpoint called");
@@ -186,7 +207,7 @@ public class BatchProcessController {
             
             for (String pattern : csvPatterns) {
                 try {
-                    Resource resource = resolver.getResource(pattern);
+                    Resource resource = CompressedInput.resolve(resolver, pattern);
                     if (!resource.exists()) {
                         log.warn("CSV file not found: {}", pattern);
                         continue;
@@ -285,17 +306,9 @@ public class BatchProcessController {
     }
 
     private Map<String, Object> uploadCsvFromResource(Resource resource) throws Exception {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-            
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            
-            return etlUploadController.processCsvContent(content.toString(), resource.getFilename());
-        }
+        return etlUploadController.processCsvContent(
+                new InputStreamReader(CompressedInput.open(resource.getInputStream()), StandardCharsets.UTF_8),
+                resource.getFilename());
     }
 
     private String extractEntityType(String fileName) {
@@ -1,13 +1,28 @@
 package com.booknest.etl.web;
 
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.booknest.etl.dto.ExtractCheckpoint;
+import com.booknest.etl.dto.IngestCheckpoint;
+import com.booknest.etl.dto.LoadWatermark;
+import com.booknest.etl.messaging.codec.MessageCodecBenchmark;
+import com.booknest.etl.messaging.codec.MessageCodecBenchmarkReport;
+import com.booknest.etl.repository.staging.ExtractCheckpointRepository;
+import com.booknest.etl.repository.staging.IngestCheckpointRepository;
+import com.booknest.etl.repository.staging.LoadWatermarkRepository;
+import com.booknest.etl.service.extract.BookExtractBenchmark;
+import com.booknest.etl.service.extract.BookExtractBenchmarkReport;
+import com.booknest.etl.service.extract.IncrementalExtractService;
+import com.booknest.etl.service.load.DimensionCacheService;
+import com.booknest.etl.service.load.SourceDbLoaderService;
 import com.booknest.etl.service.orchestrator.EtlOrchestratorService;
 import com.booknest.etl.service.staging.StagingSummaryService;
 
@@ -20,6 +35,14 @@ public class EtlController {
 
     private final EtlOrchestratorService orchestratorService;
     private final StagingSummaryService stagingSummaryService;
+    private final DimensionCacheService dimensionCacheService;
+    private final SourceDbLoaderService sourceDbLoaderService;
+    private final LoadWatermarkRepository loadWatermarkRepository;
+    private final IngestCheckpointRepository ingestCheckpointRepository;
+    private final ExtractCheckpointRepository extractCheckpointRepository;
+    private final IncrementalExtractService incrementalExtractService;
+    private final BookExtractBenchmark bookExtractBenchmark;
+    private final MessageCodecBenchmark messageCodecBenchmark;
 
     @PostMapping("/run/database")
     public ResponseEntity<String> triggerDatabaseExtract() {
@@ -44,4 +67,56 @@ public class EtlController {
     public ResponseEntity<Map<String, Long>> getSummary() {
         return ResponseEntity.ok(stagingSummaryService.loadSummary());
     }
+
+    @GetMapping("/load/dimension-cache")
+    public ResponseEntity<Map<String, Map<String, Double>>> getDimensionCacheStats() {
+        return ResponseEntity.ok(dimensionCacheService.stats());
+    }
+
+    @GetMapping("/load/watermarks")
+    public ResponseEntity<List<LoadWatermark>> getLoadWatermarks() {
+        return ResponseEntity.ok(loadWatermarkRepository.findAll());
+    }
+
+    @PostMapping("/load/watermarks/reset")
+    public ResponseEntity<Map<String, Integer>> resetLoadWatermarks(@RequestParam(required = false) String entity) {
+        return ResponseEntity.ok(Map.of("reset", sourceDbLoaderService.resetWatermark(entity)));
+    }
+
+    @GetMapping("/extract/ingest/checkpoints")
+    public ResponseEntity<List<IngestCheckpoint>> getIngestCheckpoints() {
+        return ResponseEntity.ok(ingestCheckpointRepository.findAll());
+    }
+
+    @PostMapping("/extract/ingest/checkpoints/reset")
+    public ResponseEntity<Map<String, Integer>> resetIngestCheckpoints(@RequestParam(required = false) String file) {
+        int reset = file == null ? ingestCheckpointRepository.resetAll() : ingestCheckpointRepository.reset(file);
+        return ResponseEntity.ok(Map.of("reset", reset));
+    }
+
+    @PostMapping("/run/database/incremental")
+    public ResponseEntity<Map<String, Integer>> runIncrementalDatabase() {
+        return ResponseEntity.ok(orchestratorService.runIncrementalDatabaseExtract());
+    }
+
+    @GetMapping("/extract/checkpoints")
+    public ResponseEntity<List<ExtractCheckpoint>> getExtractCheckpoints() {
+        return ResponseEntity.ok(extractCheckpointRepository.findAll());
+    }
+
+    @PostMapping("/extract/checkpoints/reset")
+    public ResponseEntity<Map<String, Integer>> resetExtractCheckpoints(@RequestParam(required = false) String entity) {
+        return ResponseEntity.ok(Map.of("reset", incrementalExtractService.resetCheckpoint(entity)));
+    }
+
+    @GetMapping("/extract/books/benchmark")
+    public ResponseEntity<BookExtractBenchmarkReport> benchmarkBookExtract(@RequestParam(defaultValue = "3") int rounds) {
+        return ResponseEntity.ok(bookExtractBenchmark.run(rounds));
+    }
+
+    @GetMapping("/messaging/codec/benchmark")
+    public ResponseEntity<MessageCodecBenchmarkReport> benchmarkMessageCodecs(@RequestParam(defaultValue = "5") int rounds,
+                                                                              @RequestParam(defaultValue = "2000") int iterations) {
+        return ResponseEntity.ok(messageCodecBenchmark.run(rounds, iterations));
+    }
 }
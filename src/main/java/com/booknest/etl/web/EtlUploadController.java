@@ -1,7 +1,9 @@
 package com.booknest.etl.web;
 
-import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -26,8 +28,12 @@ import com.booknest.etl.dto.CartItemRawMessage;
 import com.booknest.etl.dto.InvoiceRawMessage;
 import com.booknest.etl.dto.OrderItemRawMessage;
 import com.booknest.etl.messaging.producer.EtlMessagePublisher;
+import com.booknest.etl.service.extract.CompressedInput;
+import com.booknest.etl.service.extract.CsvTokenizer;
 import com.booknest.etl.service.dq.DataQualityService;
 import com.booknest.etl.service.dq.DataQualityAutoFixService;
+import com.booknest.etl.service.load.LoadRunReport;
+import com.booknest.etl.service.load.SourceLoadScheduler;
 import com.booknest.etl.service.transform.TransformService;
 import com.booknest.etl.service.tracking.MessageTracingService;
 import com.booknest.etl.dto.DqErrorDto;
@@ -51,6 +57,7 @@ public class EtlUploadController {
     private final DataQualityAutoFixService autoFixService;
     private final TransformService transformService;
     private final MessageTracingService tracingService;
+    private final SourceLoadScheduler sourceLoadScheduler;
 
     @PostMapping("/upload")
     public ResponseEntity<Map<String, Object>> uploadCsv(@RequestParam("file") MultipartFile file) {
@@ -122,54 +129,56 @@ public class EtlUploadController {
 
     @PostMapping("/load-to-source")
     public ResponseEntity<Map<String, Object>> loadToSourceDb() {
-        // This endpoint is no longer needed - data automatically flows to source_db via RabbitMQ
-        // RabbitMQ flow: Upload → Raw Queue → Validation → Quality Queue → Transform → Staging → Source DB
-        log.info("ℹData is automatically processed via RabbitMQ and loaded to source_db");
-        log.info("ℹCheck RabbitMQ management UI (http://localhost:15672) for queue status");
-        
-        return ResponseEntity.ok(Map.of(
-                "status", "INFO",
-                "message", "Dữ liệu tự động được xử lý qua RabbitMQ và load vào DB chính",
-                "rabbitmq_ui", "http://localhost:15672",
-                "note", "Consumers (RawMessageListener, QualityMessageConsumer) đang xử lý async trong background"
-        ));
+        // Consumers already load each validated record; this runs a full delta load of everything
+        // still pending in staging_db, scheduled by entity dependencies.
+        LoadRunReport report = sourceLoadScheduler.runFullLoad();
+
+        Map<String, Object> loaded = new LinkedHashMap<>();
+        report.getSteps().forEach((entity, step) -> loaded.put(toCamelCase(entity), step.getLoaded()));
+        loaded.put("total", report.getTotalLoaded());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", report.isSuccess() ? "SUCCESS" : "PARTIAL");
+        response.put("loaded", loaded);
+        response.put("elapsedMs", report.getElapsedMs());
+        response.put("criticalPath", report.getCriticalPath());
+        response.put("criticalPathMs", report.getCriticalPathMs());
+        response.put("steps", report.getSteps());
+        return ResponseEntity.ok(response);
     }
 
-    private Map<String, Object> processCsvFile(MultipartFile file) throws Exception {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            return processCsvContent(content.toString(), file.getOriginalFilename());
+    private static String toCamelCase(String entity) {
+        int underscore = entity.indexOf('_');
+        if (underscore < 0) {
+            return entity;
         }
+        return entity.substring(0, underscore)
+                + Character.toUpperCase(entity.charAt(underscore + 1))
+                + entity.substring(underscore + 2);
+    }
+
+    private Map<String, Object> processCsvFile(MultipartFile file) throws Exception {
+        return processCsvContent(new InputStreamReader(CompressedInput.open(file.getInputStream()), StandardCharsets.UTF_8),
+                file.getOriginalFilename());
     }
 
     public Map<String, Object> processCsvContent(String csvContent, String fileName) throws Exception {
+        return processCsvContent(new StringReader(csvContent), fileName);
+    }
+
+    public Map<String, Object> processCsvContent(Reader csvReader, String fileName) throws Exception {
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> transformed = new ArrayList<>();
         List<Map<String, Object>> errors = new ArrayList<>();
         List<Map<String, Object>> raw = new ArrayList<>();
 
-        try (BufferedReader reader = new BufferedReader(new java.io.StringReader(csvContent))) {
-            String line;
-            String[] headers = null;
-            int lineNum = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-                if (lineNum == 1) {
-                    headers = line.split(",");
-                    continue;
-                }
-
-                String[] values = line.split(",");
-                if (headers == null || values.length == 0) continue;
+        try (CsvTokenizer csv = new CsvTokenizer(csvReader)) {
+            String[] headers = csv.next() ? csv.strings() : null;
 
+            while (headers != null && csv.next()) {
                 Map<String, String> row = new LinkedHashMap<>();
-                for (int i = 0; i < headers.length && i < values.length; i++) {
-                    row.put(headers[i].trim(), values[i].trim());
+                for (int i = 0; i < headers.length && i < csv.fieldCount(); i++) {
+                    row.put(headers[i].trim(), csv.string(i).trim());
                 }
                 
                 raw.add(new LinkedHashMap<>(row));
@@ -294,9 +303,9 @@ public class EtlUploadController {
                 .releasedAt(releasedAt)
                 .status(originalStatus)
                 .authors(originalAuthors.isEmpty() ? Collections.emptyList() : 
-                        java.util.Arrays.asList(originalAuthors.split("[,|]")))
+                        CsvTokenizer.split(originalAuthors, ',', '|'))
                 .categories(row.containsKey("categories") && !row.get("categories").isEmpty() ? 
-                           java.util.Arrays.asList(row.get("categories").split("[,|]")) : 
+                           CsvTokenizer.split(row.get("categories"), ',', '|') : 
                            Collections.emptyList())
                 .extractedAt(OffsetDateTime.now())
                 .build();
@@ -348,7 +357,7 @@ public class EtlUploadController {
                 .email(originalEmail)
                 .phone(originalPhone)
                 .status(originalStatus)
-                .roles(java.util.Arrays.asList(originalRoles.split("[,|]")))
+                .roles(CsvTokenizer.split(originalRoles, ',', '|'))
                 .extractedAt(OffsetDateTime.now())
                 .build();
             
@@ -415,15 +424,15 @@ public class EtlUploadController {
         String originalItemQuantities = row.getOrDefault("item_quantities", "");
         
         try {
-            String[] bookIds = originalItemBookIds.isEmpty() ? new String[0] : originalItemBookIds.split("\\|");
-            String[] quantities = originalItemQuantities.isEmpty() ? new String[0] : originalItemQuantities.split("\\|");
+            List<String> bookIds = CsvTokenizer.split(originalItemBookIds, '|');
+            List<String> quantities = CsvTokenizer.split(originalItemQuantities, '|');
             
             List<CartItemRawMessage> items = new ArrayList<>();
-            for (int i = 0; i < Math.min(bookIds.length, quantities.length); i++) {
+            for (int i = 0; i < Math.min(bookIds.size(), quantities.size()); i++) {
                 try {
                     items.add(CartItemRawMessage.builder()
-                            .bookId(bookIds[i].trim())
-                            .quantity(Integer.parseInt(quantities[i].trim()))
+                            .bookId(bookIds.get(i).trim())
+                            .quantity(Integer.parseInt(quantities.get(i).trim()))
                             .unitPrice(null) // Price will be populated later
                             .build());
                 } catch (NumberFormatException e) {
@@ -0,0 +1,89 @@
+package com.booknest.etl.messaging.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import com.booknest.etl.dto.BookRawMessage;
+import com.booknest.etl.dto.RawBatch;
+import com.booknest.etl.dto.UserRawMessage;
+import com.booknest.etl.messaging.producer.ConfirmingPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RawDeliveryUnpackerTest {
+
+    private static final String EXCHANGE = "etl.exchange";
+    private static final String ERROR_KEY = "book.error";
+
+    private final Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter("com.booknest.etl.dto");
+    private final ConfirmingPublisher confirmingPublisher = mock(ConfirmingPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RawDeliveryUnpacker unpacker =
+            new RawDeliveryUnpacker(converter, confirmingPublisher, meterRegistry, EXCHANGE);
+
+    @Test
+    void unpacksSingleRecordsAndBatchEnvelopes() {
+        Message single = message(book("1"));
+        Message batch = message(RawBatch.<BookRawMessage>builder().records(List.of(book("2"), book("3"))).build());
+
+        List<BookRawMessage> records = unpacker.unpack(List.of(single, batch), BookRawMessage.class, ERROR_KEY);
+
+        assertThat(records).extracting(BookRawMessage::getBookId).containsExactly("1", "2", "3");
+        verify(confirmingPublisher, never()).send(any(), any(), any(Message.class));
+    }
+
+    @Test
+    void quarantinesPoisonDeliveriesAndKeepsTheRest() {
+        Message malformed = malformed();
+        Message wrongType = message(UserRawMessage.builder().userId("9").build());
+        List<Message> deliveries = List.of(message(book("1")), malformed, wrongType, message(book("2")));
+
+        List<BookRawMessage> records = unpacker.unpack(deliveries, BookRawMessage.class, ERROR_KEY);
+
+        assertThat(records).extracting(BookRawMessage::getBookId).containsExactly("1", "2");
+        verify(confirmingPublisher).send(EXCHANGE, ERROR_KEY, malformed);
+        verify(confirmingPublisher).send(EXCHANGE, ERROR_KEY, wrongType);
+        assertThat(meterRegistry.counter("etl.consumer.poison", "type", "BookRawMessage").count()).isEqualTo(2);
+    }
+
+    @Test
+    void aFailedQuarantineFailsTheBatchSoItIsRedelivered() {
+        Message malformed = malformed();
+        doThrow(new AmqpException("channel closed"))
+                .when(confirmingPublisher).send(eq(EXCHANGE), eq(ERROR_KEY), any(Message.class));
+
+        assertThatThrownBy(() -> unpacker.unpack(List.of(message(book("1")), malformed), BookRawMessage.class, ERROR_KEY))
+                .isInstanceOf(ListenerExecutionFailedException.class)
+                .hasCauseInstanceOf(AmqpException.class)
+                .satisfies(e -> assertThat(((ListenerExecutionFailedException) e).getFailedMessage()).isSameAs(malformed));
+    }
+
+    private Message message(Object payload) {
+        return converter.toMessage(payload, new MessageProperties());
+    }
+
+    private Message malformed() {
+        Message message = message(book("0"));
+        return new Message("{\"bookId\": ".getBytes(StandardCharsets.UTF_8), message.getMessageProperties());
+    }
+
+    private static BookRawMessage book(String id) {
+        return BookRawMessage.builder().source("csv").bookId(id).title("Book " + id).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.booknest.etl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetPagerTest {
+
+    @Test
+    void walksEveryRowAfterTheLastKeyOfThePreviousPage() {
+        List<Integer> table = List.of(3, 5, 8, 13, 21, 34, 55);
+        List<Integer> afterKeys = new ArrayList<>();
+
+        List<Integer> rows = KeysetPager.<Integer>stream((afterKey, limit) -> {
+            afterKeys.add(afterKey);
+            return table.stream().filter(id -> id > afterKey).limit(limit).toList();
+        }, id -> id, 3).toList();
+
+        assertThat(rows).isEqualTo(table);
+        assertThat(afterKeys).containsExactly(0, 8, 34);
+    }
+
+    @Test
+    void fetchesOneMorePageWhenTheLastPageIsFull() {
+        List<Integer> table = IntStream.rangeClosed(1, 4).boxed().toList();
+        List<Integer> afterKeys = new ArrayList<>();
+
+        long count = KeysetPager.<Integer>stream((afterKey, limit) -> {
+            afterKeys.add(afterKey);
+            return table.stream().filter(id -> id > afterKey).limit(limit).toList();
+        }, id -> id, 2).count();
+
+        assertThat(count).isEqualTo(4);
+        assertThat(afterKeys).containsExactly(0, 2, 4);
+    }
+
+    @Test
+    void fetchesTheNextPageOnlyOnceThePreviousOneIsConsumed() {
+        List<Integer> afterKeys = new ArrayList<>();
+
+        List<Integer> firstTwo = KeysetPager.<Integer>stream((afterKey, limit) -> {
+            afterKeys.add(afterKey);
+            return IntStream.rangeClosed(afterKey + 1, afterKey + limit).boxed().toList();
+        }, id -> id, 2).limit(2).toList();
+
+        assertThat(firstTwo).containsExactly(1, 2);
+        assertThat(afterKeys).containsExactly(0);
+    }
+
+    @Test
+    void emptyTableYieldsNoRows() {
+        assertThat(KeysetPager.<Integer>stream((afterKey, limit) -> List.of(), id -> id, 10)).isEmpty();
+    }
+
+    @Test
+    void rejectsNonPositivePageSize() {
+        assertThatThrownBy(() -> KeysetPager.<Integer>stream((afterKey, limit) -> List.of(), id -> id, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
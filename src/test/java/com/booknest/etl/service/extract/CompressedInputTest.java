@@ -0,0 +1,57 @@
+package com.booknest.etl.service.extract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class CompressedInputTest {
+
+    @Test
+    void plainInputPassesThrough() throws IOException {
+        byte[] csv = "id,name\n1,a\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(CompressedInput.open(new ByteArrayInputStream(csv)).readAllBytes()).isEqualTo(csv);
+    }
+
+    @Test
+    void gzipIsDetectedByMagicNumber() throws IOException {
+        byte[] csv = "id,name\n1,a\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(csv);
+        }
+
+        assertThat(CompressedInput.open(new ByteArrayInputStream(gzip.toByteArray())).readAllBytes()).isEqualTo(csv);
+    }
+
+    @Test
+    void closesTheInputWhenItCannotBeOpened() {
+        // A gzip magic number followed by a broken header.
+        TrackingInputStream in = new TrackingInputStream(new byte[] {0x1F, (byte) 0x8B, 0x00, 0x00});
+
+        assertThatThrownBy(() -> CompressedInput.open(in)).isInstanceOf(IOException.class);
+        assertThat(in.closed).isTrue();
+    }
+
+    private static final class TrackingInputStream extends FilterInputStream {
+        boolean closed;
+
+        TrackingInputStream(byte[] content) {
+            super(new ByteArrayInputStream(content));
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
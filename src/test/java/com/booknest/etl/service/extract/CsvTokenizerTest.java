@@ -0,0 +1,117 @@
+package com.booknest.etl.service.extract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvTokenizerTest {
+
+    @Test
+    void quotedFieldsKeepDelimitersQuotesAndLineBreaks() throws IOException {
+        CsvTokenizer csv = tokenizer("1,\"Smith, John\",\"He said \"\"hi\"\"\",\"two\nlines\"\n");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.strings()).containsExactly("1", "Smith, John", "He said \"hi\"", "two\nlines");
+        assertThat(csv.next()).isFalse();
+    }
+
+    @Test
+    void crlfEndsARecordWithoutAddingAnEmptyOne() throws IOException {
+        CsvTokenizer csv = tokenizer("id,name\r\n1,a\r\n2,b\r\n");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.strings()).containsExactly("id", "name");
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.strings()).containsExactly("1", "a");
+        assertThat(csv.lineNumber()).isEqualTo(2);
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.strings()).containsExactly("2", "b");
+        assertThat(csv.lineNumber()).isEqualTo(3);
+        assertThat(csv.next()).isFalse();
+    }
+
+    @Test
+    void lineNumbersCountLineBreaksInsideQuotesAndBlankLines() throws IOException {
+        CsvTokenizer csv = tokenizer("a,\"x\r\ny\"\r\n\r\nb,c");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.lineNumber()).isEqualTo(1);
+        assertThat(csv.string(1)).isEqualTo("x\r\ny");
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.lineNumber()).isEqualTo(4);
+        assertThat(csv.strings()).containsExactly("b", "c");
+        assertThat(csv.next()).isFalse();
+    }
+
+    @Test
+    void lastRecordNeedsNoTrailingNewline() throws IOException {
+        CsvTokenizer csv = tokenizer("1,2");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.fieldCount()).isEqualTo(2);
+        assertThat(csv.next()).isFalse();
+    }
+
+    @Test
+    void typedAccessorsParseFieldsAndTreatEmptyAsNull() throws IOException {
+        CsvTokenizer csv = tokenizer("12.50,,7,TRUE,2024-03-01T10:15:00,A|B;C\n");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.decimal(0)).isEqualByComparingTo(new BigDecimal("12.50"));
+        assertThat(csv.decimal(1)).isNull();
+        assertThat(csv.integer(1)).isNull();
+        assertThat(csv.integer(2)).isEqualTo(7);
+        assertThat(csv.bool(3)).isTrue();
+        assertThat(csv.dateTime(4)).isEqualTo(LocalDateTime.of(2024, 3, 1, 10, 15));
+        assertThat(csv.list(5, '|', ';')).isEqualTo(List.of("A", "B", "C"));
+    }
+
+    @Test
+    void trailingDelimiterYieldsAnEmptyLastField() throws IOException {
+        CsvTokenizer csv = tokenizer("a,\n");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.fieldCount()).isEqualTo(2);
+        assertThat(csv.isEmpty(1)).isTrue();
+    }
+
+    @Test
+    void recordsLongerThanTheReadBufferAreReadWhole() throws IOException {
+        String longField = "x".repeat(20_000);
+        CsvTokenizer csv = tokenizer("\"" + longField + "\",end\n");
+
+        assertThat(csv.next()).isTrue();
+        assertThat(csv.string(0)).isEqualTo(longField);
+        assertThat(csv.string(1)).isEqualTo("end");
+    }
+
+    @Test
+    void unterminatedQuoteFails() throws IOException {
+        CsvTokenizer csv = tokenizer("1,\"open\n2,3\n");
+
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    @Test
+    void outOfRangeFieldNamesTheLine() throws IOException {
+        CsvTokenizer csv = tokenizer("a,b\n");
+        csv.next();
+
+        assertThatThrownBy(() -> csv.string(2))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    private static CsvTokenizer tokenizer(String input) {
+        return new CsvTokenizer(new StringReader(input));
+    }
+}
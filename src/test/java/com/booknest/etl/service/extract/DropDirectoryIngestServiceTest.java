@@ -0,0 +1,56 @@
+package com.booknest.etl.service.extract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DropDirectoryIngestServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordEndSkipsLineBreaksInsideQuotes() throws IOException {
+        String csv = "1,\"a\nb\",x\n2,y\n";
+        try (FileChannel channel = open(csv)) {
+            // The first '\n' is inside quotes, so the first record ends after "x\n".
+            assertThat(recordEnd(channel, 0, 1, csv)).isEqualTo(csv.indexOf("2,y"));
+            assertThat(recordEnd(channel, 0, csv.indexOf("2,y") + 1, csv)).isEqualTo(csv.length());
+        }
+    }
+
+    @Test
+    void recordEndTreatsDoubledQuotesAsText() throws IOException {
+        String csv = "1,\"say \"\"hi\"\"\"\n2,\"open\n";
+        try (FileChannel channel = open(csv)) {
+            assertThat(recordEnd(channel, 0, 1, csv)).isEqualTo(csv.indexOf("2,"));
+            // The quoted field of the second record is still open, so it has not ended yet.
+            assertThat(recordEnd(channel, 0, Long.MAX_VALUE, csv)).isEqualTo(csv.indexOf("2,"));
+        }
+    }
+
+    @Test
+    void recordEndIsFromWhenNoRecordIsComplete() throws IOException {
+        String csv = "1,partial";
+        try (FileChannel channel = open(csv)) {
+            assertThat(recordEnd(channel, 0, Long.MAX_VALUE, csv)).isZero();
+        }
+    }
+
+    private long recordEnd(FileChannel channel, long from, long target, String csv) throws IOException {
+        return DropDirectoryIngestService.recordEnd(channel, from, target, csv.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private FileChannel open(String content) throws IOException {
+        Path file = Files.writeString(dir.resolve("orders_source.csv"), content);
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+}
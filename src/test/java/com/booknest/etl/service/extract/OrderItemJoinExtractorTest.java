@@ -0,0 +1,87 @@
+package com.booknest.etl.service.extract;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import com.booknest.etl.dto.OrderItemRawMessage;
+import com.booknest.etl.dto.OrderRawMessage;
+import com.booknest.etl.messaging.producer.OrderItemMessageProducer;
+import com.booknest.etl.messaging.producer.OrderMessageProducer;
+
+class OrderItemJoinExtractorTest {
+
+    private static final String ORDERS_HEADER =
+            "order_id,customer_name,customer_email,status,payment_method,total_amount,discount,shipping_fee,created_at\n";
+    private static final String ITEMS_HEADER = "order_id,book_id,quantity,unit_price\n";
+
+    @TempDir
+    Path spillDir;
+
+    private final OrderMessageProducer orderProducer = mock(OrderMessageProducer.class);
+    private final OrderItemMessageProducer orderItemProducer = mock(OrderItemMessageProducer.class);
+
+    @Test
+    void joinsSortedFilesByMerging() throws IOException {
+        OrderItemJoinExtractor.Result result = extractor().extract(
+                csv(ORDERS_HEADER + order("A") + order("B")),
+                csv(ITEMS_HEADER + "A,1,1,10\nA,2,2,20\nB,3,1,30\n"));
+
+        assertThat(result.getStrategy()).isEqualTo(OrderItemJoinExtractor.Strategy.MERGE);
+        assertThat(result.getOrders()).isEqualTo(2);
+        assertThat(result.getItems()).isEqualTo(3);
+        verify(orderProducer).sendToRaw(argThat((OrderRawMessage o) -> o.getOrderId().equals("A") && o.getItems().size() == 2));
+        verify(orderProducer).sendToRaw(argThat((OrderRawMessage o) -> o.getOrderId().equals("B") && o.getItems().size() == 1));
+    }
+
+    @Test
+    void aFailedPublishIsCountedPerRowAndTheJoinCarriesOn() throws IOException {
+        doThrow(new AmqpException("broker down"))
+                .when(orderItemProducer).sendToRaw(argThat((OrderItemRawMessage i) -> "2".equals(i.getBookId())));
+        doThrow(new AmqpException("broker down"))
+                .when(orderProducer).sendToRaw(argThat((OrderRawMessage o) -> o.getOrderId().equals("A")));
+
+        // Unsorted items force the hash join, which publishes the orders from the spilled partitions.
+        OrderItemJoinExtractor.Result result = extractor().extract(
+                csv(ORDERS_HEADER + order("A") + order("C") + order("B")),
+                csv(ITEMS_HEADER + "B,3,1,30\nA,1,1,10\nA,2,2,20\n"));
+
+        assertThat(result.getItems()).isEqualTo(2);
+        assertThat(result.getItemErrors()).isEqualTo(1);
+        assertThat(result.getOrders()).isEqualTo(2);
+        assertThat(result.getOrderErrors()).isEqualTo(1);
+        verify(orderProducer, times(3)).sendToRaw(any(OrderRawMessage.class));
+        // The item that failed on its own still belongs to order A's attempt.
+        verify(orderProducer).sendToRaw(argThat((OrderRawMessage o) -> o.getOrderId().equals("A") && o.getItems().size() == 2));
+        try (var left = Files.list(spillDir)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    private OrderItemJoinExtractor extractor() {
+        return new OrderItemJoinExtractor(orderProducer, orderItemProducer, 4, spillDir.toString());
+    }
+
+    private static String order(String id) {
+        return id + ",Name,mail@example.com,DA_THANH_TOAN,COD,100,0,0,2024-07-21T10:15:00\n";
+    }
+
+    private static Resource csv(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
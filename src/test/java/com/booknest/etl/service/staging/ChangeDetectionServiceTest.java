@@ -0,0 +1,115 @@
+package com.booknest.etl.service.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.booknest.etl.dto.BookRawMessage;
+import com.booknest.etl.service.staging.ChangeDetectionService.StagingEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChangeDetectionServiceTest {
+
+    private static final OffsetDateTime EXTRACTED_AT = OffsetDateTime.of(2025, 3, 14, 9, 30, 0, 0, ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ChangeDetectionService service = new ChangeDetectionService(jdbc, new SimpleMeterRegistry());
+
+    @Test
+    void hashIgnoresExtractionTime() {
+        BookRawMessage book = book("1", "79000.00");
+
+        assertThat(service.hash(book)).isEqualTo(service.hash(book.toBuilder().extractedAt(EXTRACTED_AT.plusDays(1)).build()));
+    }
+
+    @Test
+    void hashChangesWithContent() {
+        assertThat(service.hash(book("1", "79000.00"))).isNotEqualTo(service.hash(book("1", "79000.01")));
+    }
+
+    @Test
+    void hashDoesNotDependOnFieldOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("title", "Nhà giả kim");
+        first.put("price", 79000);
+        first.put("extractedAt", "2025-03-14T09:30:00Z");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("price", 79000);
+        second.put("title", "Nhà giả kim");
+
+        assertThat(service.hash(first)).isEqualTo(service.hash(second));
+    }
+
+    @Test
+    void hashIsHexSha256() {
+        assertThat(service.hash(book("1", "79000.00"))).matches("[0-9a-f]{64}");
+    }
+
+    @Test
+    void findUnchangedReturnsRecordsWhoseStagedHashMatches() throws Exception {
+        BookRawMessage same = book("1", "79000.00");
+        BookRawMessage changed = book("2", "50000.00");
+        BookRawMessage unstaged = book("3", "10000.00");
+        Map<BookRawMessage, String> hashes = new LinkedHashMap<>();
+        hashes.put(same, service.hash(same));
+        hashes.put(changed, service.hash(changed));
+        hashes.put(unstaged, service.hash(unstaged));
+        stage(Map.of("1", service.hash(same), "2", service.hash(book("2", "45000.00"))));
+
+        assertThat(service.findUnchanged(StagingEntity.BOOK, hashes, book -> List.of(book.getBookId())))
+                .containsExactly(same);
+        assertThat(service.unchangedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findUnchangedReportsNothingWhenTheLookupFails() {
+        BookRawMessage book = book("1", "79000.00");
+        doThrow(new QueryTimeoutException("timeout"))
+                .when(jdbc).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        assertThat(service.findUnchanged(StagingEntity.BOOK, Map.of(book, service.hash(book)),
+                b -> List.of(b.getBookId()))).isEmpty();
+    }
+
+    private void stage(Map<String, String> hashByKey) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<String, String> row : hashByKey.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("book_key")).thenReturn(row.getKey());
+                when(rs.getString("content_hash")).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static BookRawMessage book(String id, String price) {
+        return BookRawMessage.builder()
+                .source("db")
+                .bookId(id)
+                .title("Nhà giả kim")
+                .price(new BigDecimal(price))
+                .authors(List.of("Paulo Coelho"))
+                .extractedAt(EXTRACTED_AT)
+                .build();
+    }
+}